@@ -19,7 +19,6 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,10 +29,10 @@ import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.HuntBugsResult;
 import one.util.huntbugs.input.XmlReportReader;
 import one.util.huntbugs.output.Reports;
+import one.util.huntbugs.repo.ArchiveRepository;
 import one.util.huntbugs.repo.AuxRepository;
 import one.util.huntbugs.repo.CompositeRepository;
 import one.util.huntbugs.repo.DirRepository;
-import one.util.huntbugs.repo.JarRepository;
 import one.util.huntbugs.repo.Repository;
 
 import org.apache.tools.ant.BuildException;
@@ -41,10 +40,6 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.Path;
 import org.xml.sax.SAXException;
 
-import com.strobel.assembler.metadata.ClasspathTypeLoader;
-import com.strobel.assembler.metadata.CompositeTypeLoader;
-import com.strobel.assembler.metadata.ITypeLoader;
-import com.strobel.assembler.metadata.JarTypeLoader;
 import com.strobel.assembler.metadata.signatures.Reifier;
 
 public class HuntBugsTask extends Task {
@@ -78,7 +73,11 @@ public class HuntBugsTask extends Task {
 		Context ctx = new Context(repo, opt);
 		if(log == LogLevel.VERBOSE)
 			addListener(ctx);
-		ctx.analyzePackage("");
+		try {
+			ctx.analyzePackage("");
+		} finally {
+			repo.close();
+		}
 		HuntBugsResult result = ctx;
 		if(diff != null) {
 			try {
@@ -114,7 +113,7 @@ public class HuntBugsTask extends Task {
 				repos.add(new DirRepository(file.toPath()));
 			} else if(file.isFile()) {
 				try {
-					repos.add(new JarRepository(new JarFile(file)));
+					repos.add(ArchiveRepository.open(file.toPath()));
 				} catch (IOException e) {
 					throw new BuildException(e);
 				}
@@ -123,14 +122,14 @@ public class HuntBugsTask extends Task {
 			}
 		}
 		if(auxClassPath != null) {
-			List<ITypeLoader> auxLoaders = new ArrayList<>();
+			List<Repository> auxRepos = new ArrayList<>();
 			for(String path : auxClassPath.list()) {
 				File file = new File(path);
 				if(file.isDirectory()) {
-					auxLoaders.add(new ClasspathTypeLoader(file.toString()));
+					auxRepos.add(new DirRepository(file.toPath()));
 				} else if(file.isFile()) {
 					try {
-						auxLoaders.add(new JarTypeLoader(new JarFile(file)));
+						auxRepos.add(ArchiveRepository.open(file.toPath()));
 					} catch (IOException e) {
 						throw new BuildException(e);
 					}
@@ -138,8 +137,8 @@ public class HuntBugsTask extends Task {
 					throw new BuildException("Aux class path element not found: "+path);
 				}
 			}
-			if(!auxLoaders.isEmpty()) {
-				repos.add(new AuxRepository(new CompositeTypeLoader(auxLoaders.toArray(new ITypeLoader[0]))));
+			if(!auxRepos.isEmpty()) {
+				repos.add(new AuxRepository(auxRepos));
 			}
 		}
 		return repos;
@@ -23,6 +23,7 @@ import one.util.huntbugs.output.Reports;
 import one.util.huntbugs.repo.AuxRepository;
 import one.util.huntbugs.repo.CompositeRepository;
 import one.util.huntbugs.repo.DirRepository;
+import one.util.huntbugs.repo.JarRepository;
 import one.util.huntbugs.repo.Repository;
 import one.util.huntbugs.warning.Warning;
 
@@ -37,11 +38,6 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
-import com.strobel.assembler.metadata.ClasspathTypeLoader;
-import com.strobel.assembler.metadata.CompositeTypeLoader;
-import com.strobel.assembler.metadata.ITypeLoader;
-import com.strobel.assembler.metadata.JarTypeLoader;
-
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -81,6 +77,12 @@ public class HuntBugsMojo extends AbstractMojo {
     @Parameter(defaultValue = "0", property = "failScore", required = false)
     private int failScore;
     
+    /**
+     * Analysis profile: fast, balanced or thorough
+     */
+    @Parameter(defaultValue = "balanced", property = "profile", required = false)
+    private String profile;
+    
     /**
      * Do not print progress messages
      */
@@ -105,13 +107,19 @@ public class HuntBugsMojo extends AbstractMojo {
     @Override
     public void execute() throws MojoExecutionException {
         try {
-            Context ctx = new Context(constructRepository(), constructOptions());
+            Repository repo = constructRepository();
+            Context ctx;
+            try {
+                ctx = new Context(repo, constructOptions());
 
-            if (!quiet) {
-                addAnalysisProgressListener(ctx);
-            }
+                if (!quiet) {
+                    addAnalysisProgressListener(ctx);
+                }
 
-            ctx.analyzePackage("");
+                ctx.analyzePackage("");
+            } finally {
+                repo.close();
+            }
             writeReports(ctx);
         } catch (Exception e) {
             throw new MojoExecutionException("Failed to run HuntBugs", e);
@@ -125,7 +133,7 @@ public class HuntBugsMojo extends AbstractMojo {
             getLog().info("HuntBugs: +dir " + classesDirectory);
         }
 
-        List<ITypeLoader> deps = new ArrayList<>();
+        List<Repository> deps = new ArrayList<>();
         ArtifactRepository localRepository = session.getLocalRepository();
 
         Set<Artifact> dependencyArtifacts = project.getDependencyArtifacts();
@@ -139,9 +147,9 @@ public class HuntBugsMojo extends AbstractMojo {
                             getLog().info("HuntBugs: +dep " + path);
                         }
                         if (Files.isRegularFile(path) && art.getType().equals("jar")) {
-                            deps.add(new JarTypeLoader(new JarFile(path.toFile())));
+                            deps.add(new JarRepository(new JarFile(path.toFile())));
                         } else if (Files.isDirectory(path)) {
-                            deps.add(new ClasspathTypeLoader(path.toString()));
+                            deps.add(new DirRepository(path));
                         }
                     }
                 }
@@ -153,12 +161,15 @@ public class HuntBugsMojo extends AbstractMojo {
         }
         
         return new CompositeRepository(
-            Arrays.asList(repo, new AuxRepository(new CompositeTypeLoader(deps.toArray(new ITypeLoader[0])))));
+            Arrays.asList(repo, new AuxRepository(deps)));
     }
     
     private AnalysisOptions constructOptions() {
         AnalysisOptions options = new AnalysisOptions();
         options.minScore = minScore;
+        if (profile != null) {
+            options.set("profile", profile);
+        }
         
         return options;
     }
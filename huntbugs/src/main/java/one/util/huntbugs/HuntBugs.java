@@ -26,26 +26,20 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.jar.JarFile;
 import java.util.logging.LogManager;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
-import com.strobel.assembler.metadata.ClasspathTypeLoader;
-import com.strobel.assembler.metadata.CompositeTypeLoader;
-import com.strobel.assembler.metadata.ITypeLoader;
-import com.strobel.assembler.metadata.JarTypeLoader;
-
 import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.HuntBugsResult;
 import one.util.huntbugs.input.XmlReportReader;
 import one.util.huntbugs.output.Reports;
+import one.util.huntbugs.repo.ArchiveRepository;
 import one.util.huntbugs.repo.AuxRepository;
 import one.util.huntbugs.repo.CompositeRepository;
 import one.util.huntbugs.repo.DirRepository;
-import one.util.huntbugs.repo.JarRepository;
 import one.util.huntbugs.repo.Repository;
 import one.util.huntbugs.warning.rule.CategoryRule;
 import one.util.huntbugs.warning.rule.CompositeRule;
@@ -67,7 +61,7 @@ public class HuntBugs {
 
     private void parseCommandLine(String[] args) {
         List<Repository> repos = new ArrayList<>();
-        List<ITypeLoader> deps = new ArrayList<>();
+        List<Repository> deps = new ArrayList<>();
         List<Rule> rules = new ArrayList<>();
         for (String arg : args) {
             if (arg.equals("-lw")) {
@@ -122,7 +116,7 @@ public class HuntBugs {
                 }
             } else if(arg.startsWith("-A")){
                 try {
-                    glob(arg.substring(2)).map(this::createTypeLoader).forEach(deps::add);
+                    glob(arg.substring(2)).map(this::createRepository).forEach(deps::add);
                 } catch (IOException e) {
                     throw new IllegalArgumentException("Cannot open JAR file " + arg);
                 }
@@ -135,7 +129,7 @@ public class HuntBugs {
             }
         }
         if (!deps.isEmpty()) {
-            repos.add(new AuxRepository(new CompositeTypeLoader(deps.toArray(new ITypeLoader[0]))));
+            repos.add(new AuxRepository(deps));
         }
         if (!repos.isEmpty()) {
             repo = new CompositeRepository(repos);
@@ -148,20 +142,12 @@ public class HuntBugs {
 
     private Repository createRepository(Path path) {
         try {
-            return Files.isDirectory(path) ? new DirRepository(path) : new JarRepository(new JarFile(path.toFile()));
+            return Files.isDirectory(path) ? new DirRepository(path) : ArchiveRepository.open(path);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
-    private ITypeLoader createTypeLoader(Path path) {
-        try {
-            return Files.isDirectory(path) ? new ClasspathTypeLoader(path.toString()) : new JarTypeLoader(new JarFile(path.toFile()));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-    }
-    
     private int run(String[] args) {
         LogManager.getLogManager().reset();
         if (args.length == 0) {
@@ -251,7 +237,11 @@ public class HuntBugs {
                 ctx.reportStats(System.out);
                 System.out.println("Analyzis time " + dur.toMinutes() + "m" + dur.getSeconds() % 60 + "s");
             }));
-        ctx.analyzePackage("");
+        try {
+            ctx.analyzePackage("");
+        } finally {
+            repo.close();
+        }
         return 0;
     }
     
@@ -18,7 +18,14 @@ package one.util.huntbugs.analysis;
 import java.io.PrintStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.strobel.decompiler.ast.AstOptimizationStep;
 
 import one.util.huntbugs.warning.rule.Rule;
 
@@ -31,9 +38,41 @@ public class AnalysisOptions {
     public int maxMethodSize = 8000;
     public int classesPerFlush = 1000;
     public int minScore = 1;
+    /**
+     * Evaluate CONST and NULL along def-use links instead of the full dataflow.
+     * Branch conditions and exceptional paths are not tracked in this mode, so
+     * the comparisons known only under a condition, the redundant null checks
+     * and the exceptional null dereferences are not reported (the latter are
+     * reported as possible dereferences).
+     */
+    public boolean sparseDataflow = false;
+    public int maxDataflowIterations = 7;
+    public boolean populateDependencyDatabases = true;
+    public AstOptimizationStep astOptimizationLimit = AstOptimizationStep.None;
+    public int astStepTiming = 0;
+    public boolean offHeapDatabases = false;
+    public int classBytesCacheSize = 64;
+    public int prefetchClasses = 32;
+    public String jdkHome = null;
+    public AnalysisProfile profile = AnalysisProfile.BALANCED;
     private Rule rule = Rule.NULL;
+    // options set by name, they take precedence over the profile
+    private final Map<String, String> explicit = new LinkedHashMap<>();
 
+    /**
+     * Sets the option by name. Options set this way are kept when the profile
+     * is selected later, so the order doesn't matter.
+     * 
+     * @param name option name
+     * @param valueString option value
+     */
     public void set(String name, String valueString) {
+        setValue(name, valueString);
+        if (!name.equals("profile"))
+            explicit.put(name, valueString);
+    }
+
+    private void setValue(String name, String valueString) {
         Objects.requireNonNull(valueString);
         try {
             Field field = getClass().getField(name);
@@ -50,6 +89,19 @@ public class AnalysisOptions {
                 value = Boolean.valueOf(valueString);
             } else if (type == String.class) {
                 value = valueString;
+            } else if (type == AnalysisProfile.class) {
+                try {
+                    setProfile(AnalysisProfile.valueOf(valueString.toUpperCase(Locale.ENGLISH)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid value " + valueString + " for option " + name
+                        + " (one of " + Arrays.toString(AnalysisProfile.values()) + " expected)");
+                }
+                return;
+            } else if (type.isEnum()) {
+                value = Stream.of(type.getEnumConstants()).filter(c -> c.toString().equalsIgnoreCase(valueString))
+                        .findFirst().orElseThrow(() -> new IllegalArgumentException("Invalid value " + valueString
+                            + " for option " + name + " (one of " + Arrays.toString(type.getEnumConstants())
+                            + " expected)"));
             } else
                 throw new InternalError("Unexpected field type: " + type);
             field.set(this, value);
@@ -60,6 +112,18 @@ public class AnalysisOptions {
         }
     }
 
+    /**
+     * Sets the analysis profile overwriting the options it controls, except
+     * the ones previously set via {@link #set(String, String)}
+     * 
+     * @param profile profile to use
+     */
+    public void setProfile(AnalysisProfile profile) {
+        this.profile = Objects.requireNonNull(profile);
+        profile.apply(this);
+        explicit.forEach(this::setValue);
+    }
+
     public Rule getRule() {
         return rule;
     }
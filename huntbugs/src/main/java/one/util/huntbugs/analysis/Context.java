@@ -15,8 +15,11 @@
  */
 package one.util.huntbugs.analysis;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -28,20 +31,25 @@ import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import com.strobel.assembler.ir.ConstantPool;
 import com.strobel.assembler.ir.ConstantPool.TypeInfoEntry;
-import com.strobel.assembler.metadata.ClasspathTypeLoader;
-import com.strobel.assembler.metadata.CompositeTypeLoader;
 import com.strobel.assembler.metadata.ITypeLoader;
 import com.strobel.assembler.metadata.MetadataSystem;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
 
 import one.util.huntbugs.registry.DetectorRegistry;
+import one.util.huntbugs.repo.ClassBytesCache;
+import one.util.huntbugs.repo.ClassPrefetcher;
+import one.util.huntbugs.repo.IndexedTypeLoader;
+import one.util.huntbugs.repo.JdkRepository;
 import one.util.huntbugs.repo.Repository;
 import one.util.huntbugs.repo.RepositoryVisitor;
+import one.util.huntbugs.util.MetadataCaches;
+import one.util.huntbugs.util.SubtypeCache;
 import one.util.huntbugs.warning.Messages;
 import one.util.huntbugs.warning.Warning;
 import one.util.huntbugs.warning.WarningType;
@@ -62,18 +70,44 @@ public class Context implements HuntBugsResult {
     private final AnalysisOptions options;
     private final List<AnalysisListener> listeners = new CopyOnWriteArrayList<>();
     private final Map<String, Long> stat = new ConcurrentHashMap<>();
+    private final SubtypeCache subtypeCache = new SubtypeCache();
     private Messages msgs;
+    // JDK classes opened for this analysis, closed when it's over
+    private final Repository jdk;
+    private final ClassBytesCache cache;
     private final ITypeLoader loader;
 
     public Context(Repository repository, AnalysisOptions options) {
         this.options = options;
         registry = new DetectorRegistry(this);
         this.repository = repository == null ? Repository.createNullRepository() : repository;
-        ITypeLoader loader = this.repository.createTypeLoader();
-        if (options.addBootClassPath) {
-            loader = new CompositeTypeLoader(new ClasspathTypeLoader(System.getProperty("sun.boot.class.path")), loader);
+        long maxCacheBytes = options.classBytesCacheSize * (1L << 20);
+        jdk = options.addBootClassPath ? openJdk(options.jdkHome) : null;
+        if (jdk != null) {
+            cache = new ClassBytesCache(new IndexedTypeLoader(Arrays.asList(jdk, this.repository)), maxCacheBytes);
+        } else {
+            cache = new ClassBytesCache(this.repository.createTypeLoader(), maxCacheBytes);
+        }
+        loader = cache;
+    }
+
+    /**
+     * @param jdkHome JDK home directory or null to use the JDK of the current
+     *        JVM
+     * @return repository of the JDK classes; if they cannot be read, the error
+     *         is reported and the classes of the current JVM are used
+     *         instead, or null is returned if they cannot be read either
+     */
+    private Repository openJdk(String jdkHome) {
+        try {
+            return JdkRepository.forHome(jdkHome);
+        } catch (IOException | RuntimeException e) {
+            String fallback = jdkHome == null ? "JDK classes are not available"
+                : "using the JDK of the current JVM instead";
+            addError(new ErrorMessage(null, null, null, null, -1, "Cannot read JDK classes"
+                + (jdkHome == null ? "" : " from " + jdkHome) + " (" + e + "), " + fallback));
+            return jdkHome == null ? null : openJdk(null);
         }
-        this.loader = loader;
     }
     
     @Override
@@ -116,84 +150,165 @@ public class Context implements HuntBugsResult {
             }
         });
         totalClasses = classes.size();
-        if(registry.hasDatabases()) {
-            if(!preparingClasses(classes))
-                return;
+        Throwable failure = null;
+        try {
+            if(registry.hasDatabases()) {
+                if(!preparingClasses(classes))
+                    return;
+            }
+            analyzingClasses(classes);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            release(failure, registry::closeDatabases, cache::clear, () -> {
+                if (jdk != null)
+                    jdk.close();
+            });
         }
-        analyzingClasses(classes);
+    }
+
+    /**
+     * Runs every release action even if some of them fail. The analyzed
+     * repository is not released here: it's owned by the caller which created
+     * it.
+     * 
+     * @param failure exception thrown by the analysis or null
+     * @param actions release actions to run
+     * @throws RuntimeException the first failed action if there's no
+     *         analysis failure; other action failures are suppressed
+     */
+    private static void release(Throwable failure, Runnable... actions) {
+        RuntimeException error = null;
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                if (failure != null)
+                    failure.addSuppressed(e);
+                else if (error == null)
+                    error = e;
+                else
+                    error.addSuppressed(e);
+            }
+        }
+        if (error != null)
+            throw error;
     }
 
     private boolean preparingClasses(Set<String> classes) {
         MetadataSystem ms = createMetadataSystem();
         Set<String> auxClasses = new TreeSet<>();
         int count = 0;
-        for (String className : classes) {
-            if (!fireEvent("Reading classes", className, count, classes.size()))
-                return false;
-            if(++count % options.classesPerFlush == 0) {
-                ms = createMetadataSystem();
-            }
-            TypeDefinition type;
-            try {
-                type = lookUp(ms, className);
-            } catch (Throwable t) {
-                addError(new ErrorMessage(null, className, null, null, -1, t));
-                continue;
-            }
-            if (type != null) {
-                for(ConstantPool.Entry entry : type.getConstantPool()) {
-                    if(entry instanceof TypeInfoEntry) {
-                        String depName = getMainType(((TypeInfoEntry)entry).getName());
+        try (ClassPrefetcher prefetcher = prefetch(classes)) {
+            for (String className : classes) {
+                if (!fireEvent("Reading classes", className, count, classes.size()))
+                    return false;
+                prefetcher.advance(count);
+                if(++count % options.classesPerFlush == 0) {
+                    ms = createMetadataSystem();
+                }
+                prepareClass(ms, className, deps -> {
+                    for(String dep : deps) {
+                        String depName = getMainType(dep);
                         if(depName != null && !classes.contains(depName))
                             auxClasses.add(depName);
                     }
-                }
-                registry.populateDatabases(type);
+                });
             }
         }
         if (!fireEvent("Reading classes", null, classes.size(), classes.size()))
             return false;
+        if (!options.populateDependencyDatabases)
+            return true;
         ms = createMetadataSystem();
         count = 0;
-        for (String className : auxClasses) {
-            if (!fireEvent("Reading dep classes", className, count, auxClasses.size()))
-                return false;
-            if(++count % options.classesPerFlush == 0) {
-                ms = createMetadataSystem();
+        try (ClassPrefetcher prefetcher = prefetch(auxClasses)) {
+            for (String className : auxClasses) {
+                if (!fireEvent("Reading dep classes", className, count, auxClasses.size()))
+                    return false;
+                prefetcher.advance(count);
+                if(++count % options.classesPerFlush == 0) {
+                    ms = createMetadataSystem();
+                }
+                prepareClass(ms, className, null);
+            }
+        }
+        return fireEvent("Reading dep classes", null, auxClasses.size(), auxClasses.size());
+    }
+
+    /**
+     * @param depsConsumer receives the types referenced from the analyzed
+     *        class; null if the class is read as dependency
+     */
+    private void prepareClass(MetadataSystem ms, String className, Consumer<List<String>> depsConsumer) {
+        TypeDefinition type;
+        try {
+            type = lookUp(ms, className);
+        } catch (Throwable t) {
+            addError(new ErrorMessage(null, className, null, null, -1, t));
+            return;
+        }
+        if (type == null)
+            return;
+        if (depsConsumer != null) {
+            List<String> deps = new ArrayList<>();
+            for(ConstantPool.Entry entry : type.getConstantPool()) {
+                if(entry instanceof TypeInfoEntry) {
+                    deps.add(((TypeInfoEntry)entry).getName());
+                }
+            }
+            depsConsumer.accept(deps);
+        }
+        registry.populateDatabases(type, depsConsumer == null);
+    }
+
+    MetadataSystem createMetadataSystem() {
+        return new AnalysisMetadataSystem();
+    }
+
+    private class AnalysisMetadataSystem extends MetadataSystem implements MetadataCaches {
+        Set<String> loadedTypes = new HashSet<>();
+
+        AnalysisMetadataSystem() {
+            super(loader);
+        }
+
+        @Override
+        protected TypeDefinition resolveType(String descriptor, boolean mightBePrimitive) {
+            if(missingClasses.contains(descriptor)) {
+                return null;
             }
-            TypeDefinition type;
             try {
-                type = lookUp(ms, className);
+                if(loadedTypes.add(descriptor))
+                    incStat("ClassLoadingEfficiency.Total");
+                if(classes.add(descriptor))
+                    incStat("ClassLoadingEfficiency");
+                return super.resolveType(descriptor, mightBePrimitive);
             } catch (Throwable t) {
-                addError(new ErrorMessage(null, className, null, null, -1, t));
-                continue;
+                addError(new ErrorMessage(null, descriptor, null, null, -1, t));
+                missingClasses.add(descriptor);
+                return null;
             }
-            if (type != null)
-                registry.populateDatabases(type);
         }
-        return fireEvent("Reading dep classes", null, auxClasses.size(), auxClasses.size());
+
+        @Override
+        public SubtypeCache getSubtypeCache() {
+            return subtypeCache;
+        }
     }
 
-    MetadataSystem createMetadataSystem() {
-        return new MetadataSystem(loader) {
-            Set<String> loadedTypes = new HashSet<>();
-            
+    /**
+     * @param classes classes in the order they will be read
+     * @return started prefetcher which must be advanced by the caller
+     */
+    private ClassPrefetcher prefetch(Collection<String> classes) {
+        int window = cache.getMaxBytes() == 0 ? 0 : options.prefetchClasses;
+        return new ClassPrefetcher(loader, classes, window) {
             @Override
-            protected TypeDefinition resolveType(String descriptor, boolean mightBePrimitive) {
-                if(missingClasses.contains(descriptor)) {
-                    return null;
-                }
-                try {
-                    if(loadedTypes.add(descriptor))
-                        incStat("ClassLoadingEfficiency.Total");
-                    if(classes.add(descriptor))
-                        incStat("ClassLoadingEfficiency");
-                    return super.resolveType(descriptor, mightBePrimitive);
-                } catch (Throwable t) {
-                    addError(new ErrorMessage(null, descriptor, null, null, -1, t));
-                    missingClasses.add(descriptor);
-                    return null;
-                }
+            public void close() {
+                super.close();
+                addStat("PrefetchedClasses", getCount());
             }
         };
     }
@@ -210,12 +325,15 @@ public class Context implements HuntBugsResult {
     private void analyzingClasses(Set<String> classes) {
         MetadataSystem ms = createMetadataSystem();
         classesCount.set(0);
-        for (String className : classes) {
-            if(classesCount.get() % options.classesPerFlush == 0)
-                ms = createMetadataSystem();
-            if (!fireEvent("Analyzing classes", className, classesCount.get(), classes.size()))
-                return;
-            analyzeClass(ms, className);
+        try (ClassPrefetcher prefetcher = prefetch(classes)) {
+            for (String className : classes) {
+                if(classesCount.get() % options.classesPerFlush == 0)
+                    ms = createMetadataSystem();
+                if (!fireEvent("Analyzing classes", className, classesCount.get(), classes.size()))
+                    return;
+                prefetcher.advance(classesCount.get());
+                analyzeClass(ms, className);
+            }
         }
         if (!fireEvent("Analyzing classes", null, classes.size(), classes.size()))
             return;
@@ -264,6 +382,11 @@ public class Context implements HuntBugsResult {
     }
 
     public void reportStats(PrintStream app) {
+        if (cache.getMaxBytes() > 0 && cache.getLookups() > 0) {
+            stat.put("ClassBytesCache", cache.getHits());
+            stat.put("ClassBytesCache.Total", cache.getLookups());
+            stat.put("ClassBytesCacheSavedKB", cache.getSavedBytes() >> 10);
+        }
         if (stat.isEmpty())
             return;
         app.append("Statistics:\n");
@@ -318,6 +441,10 @@ public class Context implements HuntBugsResult {
     public void incStat(String key) {
         stat.merge(key, 1L, Long::sum);
     }
+
+    public void addStat(String key, long value) {
+        stat.merge(key, value, Long::sum);
+    }
     
     public Stream<WarningType> warningTypes() {
         return registry.warningTypes();
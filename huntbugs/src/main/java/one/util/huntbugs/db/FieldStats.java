@@ -18,9 +18,7 @@ package one.util.huntbugs.db;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import com.strobel.assembler.ir.Instruction;
@@ -34,9 +32,12 @@ import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.assembler.metadata.VariableReference;
 
+import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.registry.AbstractTypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabaseItem;
+import one.util.huntbugs.util.RecordIndex;
+import one.util.huntbugs.util.Symbols;
 import one.util.huntbugs.util.Types;
 
 /**
@@ -59,7 +60,24 @@ public class FieldStats extends AbstractTypeDatabase<FieldStats.TypeFieldStats>{
     public static final int UNRESOLVED = 0x10000000;
     
     public FieldStats() {
-        super(name -> new TypeFieldStats());
+        this(new AnalysisOptions(), new Symbols());
+    }
+    
+    public FieldStats(AnalysisOptions options, Symbols symbols) {
+        // Flags of all the fields are stored in the single index keyed by type and field name symbol ids
+        this(new RecordIndex(options.offHeapDatabases), symbols);
+    }
+    
+    private final RecordIndex index;
+    
+    private FieldStats(RecordIndex index, Symbols symbols) {
+        super(name -> new TypeFieldStats(index, symbols, name));
+        this.index = index;
+    }
+    
+    @Override
+    protected void close() {
+        index.close();
     }
     
     static final class SimpleStack {
@@ -239,29 +257,38 @@ public class FieldStats extends AbstractTypeDatabase<FieldStats.TypeFieldStats>{
 
     @TypeDatabaseItem(parentDatabase=FieldStats.class)
     public static class TypeFieldStats {
-        // Can be null if the whole type is uncontrolled
-        private Map<String, Integer> fieldRecords = new HashMap<>();
+        private final RecordIndex fieldRecords;
+        private final Symbols symbols;
+        private final int type;
+        private boolean uncontrolled;
+        
+        TypeFieldStats(RecordIndex fieldRecords, Symbols symbols, String typeName) {
+            this.fieldRecords = fieldRecords;
+            this.symbols = symbols;
+            this.type = symbols.id(typeName);
+        }
         
         void linkUncontrolled(String fieldName) {
-            if(fieldRecords != null)
-                fieldRecords.put(fieldName, ACCESS | WRITE_NONNULL);
+            if(!uncontrolled)
+                fieldRecords.put(type, symbols.id(fieldName), 0, ACCESS | WRITE_NONNULL);
         }
         
         public int getFlags(String name) {
-            if(fieldRecords == null) {
+            if(uncontrolled) {
                 return ACCESS | WRITE_NONNULL;
             }
-            return fieldRecords.getOrDefault(name, 0);
+            return fieldRecords.get(type, symbols.find(name), 0, 0);
         }
 
         void linkUncontrolled() {
-            fieldRecords = null;
+            uncontrolled = true;
         }
 
         void link(MethodDefinition src, FieldReference fr, boolean isStatic, boolean write, boolean hadNull) {
-            if(fieldRecords == null)
+            if(uncontrolled)
                 return;
-            int prevStatus = fieldRecords.getOrDefault(fr.getName(), 0);
+            int name = symbols.id(fr.getName());
+            int prevStatus = fieldRecords.get(type, name, 0, 0);
             int curStatus = prevStatus;
             if(src.getDeclaringType().isEquivalentTo(fr.getDeclaringType())) {
                 if(write && (src.isConstructor() && !isStatic || src.isTypeInitializer() && isStatic)) {
@@ -278,7 +305,7 @@ public class FieldStats extends AbstractTypeDatabase<FieldStats.TypeFieldStats>{
                 curStatus |= WRITE_NONNULL;
             }
             if(prevStatus != curStatus) {
-                fieldRecords.put(fr.getName(), curStatus);
+                fieldRecords.put(type, name, 0, curStatus);
             }
         }
     }
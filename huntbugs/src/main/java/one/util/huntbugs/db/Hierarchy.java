@@ -15,12 +15,15 @@
  */
 package one.util.huntbugs.db;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import com.strobel.assembler.metadata.Flags;
-import com.strobel.assembler.metadata.IMetadataResolver;
 import com.strobel.assembler.metadata.MethodDefinition;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
@@ -28,9 +31,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import one.util.huntbugs.registry.AbstractTypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabaseItem;
-import one.util.huntbugs.util.Methods;
 import one.util.huntbugs.util.Types;
-import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
 
 /**
  * @author Tagir Valeev
@@ -46,22 +47,66 @@ public class Hierarchy extends AbstractTypeDatabase<Hierarchy.TypeHierarchy> {
     protected void visitType(TypeDefinition td) {
         TypeHierarchy th = getOrCreate(td);
         th.flags = td.getFlags();
+        th.methods = td.getDeclaredMethods().stream().filter(md -> mayOverride(md.getName(), md.getFlags())).map(
+            md -> methodKey(md.getName(), md.getErasedSignature())).collect(Collectors.toSet());
         link(th, td.getBaseType());
         for (TypeReference id : td.getExplicitInterfaces())
             link(th, id);
     }
     
+    /**
+     * @param md method to check
+     * @return true if the method is overridden in any known subclass.
+     *         Package-private method can be overridden only in the same
+     *         package (possibly via the subclasses from other packages).
+     */
     public boolean isOverridden(MethodDefinition md) {
-        if(md.isStatic() || md.isFinal() || md.getDeclaringType().isFinal())
+        return isOverridden(md, false);
+    }
+
+    /**
+     * @param md method to check
+     * @return true if the method is overridden in any known subclass from
+     *         another package (never true for package-private methods)
+     */
+    public boolean isOverriddenOutsidePackage(MethodDefinition md) {
+        return isOverridden(md, true);
+    }
+
+    private boolean isOverridden(MethodDefinition md, boolean outsidePackage) {
+        if (md.isStatic() || md.isFinal() || md.isPrivate() || md.isConstructor() || md.isTypeInitializer()
+            || md.getDeclaringType().isFinal())
+            return false;
+        boolean packagePrivate = !md.isPublic() && !md.isProtected();
+        if (packagePrivate && outsidePackage)
             return false;
-        IMetadataResolver resolver = md.getDeclaringType().getResolver();
-        MemberInfo mi = new MemberInfo(md);
         TypeHierarchy th = get(md.getDeclaringType());
-        return th != null && th.isOverridden(resolver, mi);
+        if (th == null)
+            return false;
+        String key = methodKey(md.getName(), md.getErasedSignature());
+        String type = th.getInternalName();
+        Predicate<TypeHierarchy> filter = packagePrivate ? sub -> Types.samePackage(type, sub.getInternalName())
+                : outsidePackage ? sub -> !Types.samePackage(type, sub.getInternalName()) : sub -> true;
+        return th.isOverridden(key, filter);
+    }
+
+    // Only these methods are indexed: constructors, static and private methods never override
+    private static boolean mayOverride(String name, long flags) {
+        return !name.startsWith("<") && !Flags.testAny(flags, Flags.STATIC | Flags.PRIVATE);
+    }
+
+    // Methods are matched by name and parameter types only like Methods.findMethod does
+    static String methodKey(String name, String signature) {
+        return name + signature.substring(0, signature.indexOf(')') + 1);
     }
     
     private void link(TypeHierarchy th, TypeReference superType) {
-        if (superType == null || Types.isObject(superType))
+        if (superType != null)
+            link(th, superType.getInternalName());
+    }
+    
+    private void link(TypeHierarchy th, String superType) {
+        if (superType == null || superType.equals("java/lang/Object"))
             return;
         TypeHierarchy superTh = getOrCreate(superType);
         th.superClasses.add(superTh);
@@ -74,6 +119,8 @@ public class Hierarchy extends AbstractTypeDatabase<Hierarchy.TypeHierarchy> {
         long flags = Flags.LOAD_BODY_FAILED;
         final Set<TypeHierarchy> superClasses = new HashSet<>();
         final Set<TypeHierarchy> subClasses = new HashSet<>();
+        // keys (name and parameter types) of declared methods which may override
+        Set<String> methods = Collections.emptySet();
 
         public TypeHierarchy(String name) {
             this.internalName = name;
@@ -91,21 +138,17 @@ public class Hierarchy extends AbstractTypeDatabase<Hierarchy.TypeHierarchy> {
             return Collections.unmodifiableSet(subClasses);
         }
         
-        boolean isOverridden(IMetadataResolver resolver, MemberInfo mi) {
-            for(TypeHierarchy th : subClasses) {
-                TypeReference str = resolver.lookupType(th.internalName);
-                if(str == null)
+        boolean isOverridden(String methodKey, Predicate<TypeHierarchy> filter) {
+            // Iterative walk: hierarchies may be deep, interface diamonds are visited once
+            Set<TypeHierarchy> visited = new HashSet<>();
+            Deque<TypeHierarchy> queue = new ArrayDeque<>(subClasses);
+            while (!queue.isEmpty()) {
+                TypeHierarchy th = queue.poll();
+                if (!visited.add(th))
                     continue;
-                TypeDefinition std = resolver.resolve(str);
-                if(std == null)
-                    continue;
-                MethodDefinition res = Methods.findMethod(std, mi);
-                if(res != null)
-                    return true;
-            }
-            for(TypeHierarchy th : subClasses) {
-                if(th.isOverridden(resolver, mi))
+                if (th.methods.contains(methodKey) && filter.test(th))
                     return true;
+                queue.addAll(th.subClasses);
             }
             return false;
         }
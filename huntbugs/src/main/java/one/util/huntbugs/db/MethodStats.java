@@ -15,10 +15,6 @@
  */
 package one.util.huntbugs.db;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import com.strobel.assembler.ir.Instruction;
 import com.strobel.assembler.metadata.Flags;
 import com.strobel.assembler.metadata.MethodBody;
@@ -27,9 +23,13 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
 
+import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.registry.AbstractTypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabase;
 import one.util.huntbugs.util.Methods;
+import one.util.huntbugs.util.RecordIndex;
+import one.util.huntbugs.util.Records;
+import one.util.huntbugs.util.Symbols;
 import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
 
 /**
@@ -46,65 +46,118 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
     public static final long METHOD_FINAL = 0x20;
     public static final long METHOD_SUPPORTED = 0x40;
     
-    Map<MemberInfo, MethodData> data = new HashMap<>();
+    // Fixed-layout method rows: flags (long), head link + 1 (int); abstract
+    // methods without own row share the row of their super method
+    private static final int ROW_FLAGS = 0, ROW_SUB_METHODS = 8, ROW_SIZE = 16;
+    // Sub-method links: sub-method row (int), next link + 1 (int)
+    private static final int LINK_ROW = 0, LINK_NEXT = 4, LINK_SIZE = 8;
+    
+    // Keyed by type, name and signature symbol ids
+    private final Symbols symbols;
+    private final RecordIndex index;
+    private final Records rows;
+    private final Records links;
     
     public MethodStats() {
+        this(new AnalysisOptions(), new Symbols());
+    }
+    
+    public MethodStats(AnalysisOptions options, Symbols symbols) {
         super(type -> Boolean.TRUE);
+        this.symbols = symbols;
+        index = new RecordIndex(options.offHeapDatabases);
+        rows = new Records(ROW_SIZE, options.offHeapDatabases);
+        links = new Records(LINK_SIZE, options.offHeapDatabases);
+    }
+    
+    @Override
+    protected void close() {
+        index.close();
+        rows.close();
+        links.close();
     }
     
-    private MethodData getMethodData(MethodDefinition md) {
+    private int getRow(MethodDefinition md) {
         MemberInfo mi = new MemberInfo(md);
-        MethodData mdata = data.get(mi);
-        if(mdata != null) return mdata;
+        int type = symbols.id(mi.getTypeName()), name = symbols.id(mi.getName()), sig = symbols.id(mi.getSignature());
+        int row = index.get(type, name, sig, -1);
+        if(row != -1) return row;
         if(md.isAbstract()) {
             MethodDefinition superMd = Methods.findSuperMethod(md);
             if(superMd != null)
-                mdata = getMethodData(superMd);
+                row = getRow(superMd);
         }
-        if(mdata == null) {
-            mdata = new MethodData();
+        if(row == -1) {
+            row = rows.add();
         }
-        data.put(mi, mdata);
-        return mdata;
+        index.put(type, name, sig, row);
+        return row;
+    }
+    
+    private void addFlags(int row, long flags) {
+        rows.putLong(row, ROW_FLAGS, rows.getLong(row, ROW_FLAGS) | flags);
+    }
+    
+    private void addSubMethod(int row, int subRow) {
+        if(row == subRow)
+            return;
+        int link = links.add();
+        links.putInt(link, LINK_ROW, subRow);
+        links.putInt(link, LINK_NEXT, rows.getInt(row, ROW_SUB_METHODS));
+        rows.putInt(row, ROW_SUB_METHODS, link + 1);
+    }
+    
+    boolean testAny(int row, long flag, boolean exact) {
+        if((rows.getLong(row, ROW_FLAGS) & flag) != 0)
+            return true;
+        if(!exact) {
+            for(int link = rows.getInt(row, ROW_SUB_METHODS) - 1; link >= 0; link = links.getInt(link, LINK_NEXT) - 1) {
+                if(testAny(links.getInt(link, LINK_ROW), flag, false))
+                    return true;
+            }
+        }
+        return false;
     }
     
     @Override
     protected void visitType(TypeDefinition td) {
         for(MethodDefinition md : td.getDeclaredMethods()) {
-            MethodData mdata = getMethodData(md);
+            int row = getRow(md);
             if(md.isFinal() || td.isFinal() || md.isStatic() || md.isPrivate()) {
-                mdata.flags |= METHOD_FINAL;
+                addFlags(row, METHOD_FINAL);
             }
-            visitMethod(mdata, md);
+            visitMethod(row, md);
             for(MethodDefinition superMethod : Methods.findSuperMethods(md)) {
-                getMethodData(superMethod).addSubMethod(mdata);
+                addSubMethod(getRow(superMethod), row);
             }
         }
     }
     
     public MethodData getStats(MemberInfo mi) {
-        return data.get(mi);
+        int row = index.get(symbols.find(mi.getTypeName()), symbols.find(mi.getName()), symbols.find(mi
+                .getSignature()), -1);
+        return row == -1 ? null : new MethodData(this, row);
     }
 
     public MethodData getStats(MethodReference mr) {
-        return data.get(new MemberInfo(mr));
+        return getStats(new MemberInfo(mr));
     }
     
-    private void visitMethod(MethodData mdata, MethodDefinition md) {
+    private void visitMethod(int row, MethodDefinition md) {
         MethodBody body = md.getBody();
         if(Flags.testAny(md.getFlags(), Flags.NATIVE)) {
-            mdata.flags |= METHOD_MAY_HAVE_SIDE_EFFECT | METHOD_MAY_RETURN_NORMALLY | METHOD_MAY_THROW | METHOD_NON_TRIVIAL
-                    | METHOD_SUPPORTED;
+            addFlags(row, METHOD_MAY_HAVE_SIDE_EFFECT | METHOD_MAY_RETURN_NORMALLY | METHOD_MAY_THROW | METHOD_NON_TRIVIAL
+                    | METHOD_SUPPORTED);
         }
         if(body != null) {
-            visitBody(mdata, body);
+            visitBody(row, body);
         }
     }
 
-    private void visitBody(MethodData mdata, MethodBody body) {
-        mdata.flags |= METHOD_HAS_BODY;
+    private void visitBody(int row, MethodBody body) {
+        addFlags(row, METHOD_HAS_BODY);
         if(body.getInstructions().size() > 2) {
-            mdata.flags |= METHOD_NON_TRIVIAL;
+            addFlags(row, METHOD_NON_TRIVIAL);
         }
         boolean sawUnsupported = false, sawOtherNew = false;
         for(Instruction instr : body.getInstructions()) {
@@ -124,10 +177,10 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
             case INVOKEVIRTUAL: {
                 MethodReference mr = (MethodReference)instr.getOperand(0);
                 if(!Methods.isSideEffectFree(mr)) {
-                    mdata.flags |= METHOD_MAY_HAVE_SIDE_EFFECT;
+                    addFlags(row, METHOD_MAY_HAVE_SIDE_EFFECT);
                 }
                 if(Methods.knownToThrow(mr)) {
-                    mdata.flags |= METHOD_MAY_THROW;
+                    addFlags(row, METHOD_MAY_THROW);
                 }
                 break;
             }
@@ -142,10 +195,10 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
             case IASTORE:
             case LASTORE:
             case FASTORE:
-                mdata.flags |= METHOD_MAY_HAVE_SIDE_EFFECT;
+                addFlags(row, METHOD_MAY_HAVE_SIDE_EFFECT);
                 break;
             case ATHROW:
-                mdata.flags |= METHOD_MAY_THROW;
+                addFlags(row, METHOD_MAY_THROW);
                 break;
             case ARETURN:
             case IRETURN:
@@ -153,44 +206,35 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
             case FRETURN:
             case DRETURN:
             case RETURN:
-                mdata.flags |= METHOD_MAY_RETURN_NORMALLY;
+                addFlags(row, METHOD_MAY_RETURN_NORMALLY);
                 break;
             default:
             }
         }
-        if(!mdata.testAny(METHOD_MAY_THROW, true) || mdata.testAny(METHOD_MAY_RETURN_NORMALLY, true) ||
+        if(!testAny(row, METHOD_MAY_THROW, true) || testAny(row, METHOD_MAY_RETURN_NORMALLY, true) ||
                 !sawUnsupported || sawOtherNew) {
-            mdata.flags |= METHOD_SUPPORTED;
+            addFlags(row, METHOD_SUPPORTED);
         }
     }
 
+    /**
+     * View of single method row
+     */
     public static class MethodData {
-        private List<MethodData> subMethods;
-        long flags;
+        private final MethodStats stats;
+        private final int row;
         
-        void addSubMethod(MethodData md) {
-            if(md == this)
-                return;
-            if(subMethods == null) {
-                subMethods = new ArrayList<>();
-            }
-            subMethods.add(md);
+        MethodData(MethodStats stats, int row) {
+            this.stats = stats;
+            this.row = row;
         }
         
         public boolean testAny(long flag, boolean exact) {
-            if((flags & flag) != 0)
-                return true;
-            if(!exact && subMethods != null) {
-                for(MethodData subMethod : subMethods) {
-                    if(subMethod.testAny(flag, false))
-                        return true;
-                }
-            }
-            return false;
+            return stats.testAny(row, flag, exact);
         }
         
         public boolean mayHaveSideEffect(boolean exact) {
-            if (exact || ((flags & METHOD_FINAL) != 0)) {
+            if (exact || stats.testAny(row, METHOD_FINAL, true)) {
                 return testAny(METHOD_MAY_HAVE_SIDE_EFFECT, true);
             }
             if(testAny(METHOD_MAY_HAVE_SIDE_EFFECT, false) || !testAny(METHOD_NON_TRIVIAL, false))
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.db;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.strobel.assembler.ir.Instruction;
+import com.strobel.assembler.ir.OpCode;
+import com.strobel.assembler.ir.StackBehavior;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.MethodReference;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.assembler.metadata.VariableReference;
+
+import one.util.huntbugs.registry.AbstractTypeDatabase;
+import one.util.huntbugs.registry.anno.TypeDatabase;
+import one.util.huntbugs.util.Methods;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+
+/**
+ * Interprocedural method summaries: whether the method may have side effects.
+ * 
+ * <p>
+ * Every method body is scanned once while the database is populated. The
+ * local summaries refer to the called methods and are combined on the first
+ * query bottom-up over the strongly connected components of the call graph,
+ * so every callee is summarized before its callers. Components which do not
+ * depend on each other are processed in parallel. Only statically bound calls
+ * (static, private, final methods, constructors and super calls) are followed;
+ * other calls are treated pessimistically. Constructors get a separate
+ * result for the calls on a newly created object: stores to the fields of
+ * the object under construction are not visible to the caller then.
+ * 
+ * <p>
+ * Only the side effects are summarized. Return nullness, thrown exceptions
+ * and parameter escape are not: no analysis would consume them yet. Call
+ * results are unknown for the nullness dataflow, {@link MethodStats} already
+ * tells whether the method may throw, and no detector tracks escaping
+ * arguments.
+ * 
+ * @author lan
+ */
+@TypeDatabase
+public class MethodSummaries extends AbstractTypeDatabase<Boolean> {
+    private final Map<MemberInfo, Summary> summaries = new HashMap<>();
+    private boolean solved = true;
+
+    public MethodSummaries() {
+        super(type -> Boolean.TRUE);
+    }
+
+    @Override
+    protected void visitType(TypeDefinition td) {
+        for (MethodDefinition md : td.getDeclaredMethods()) {
+            MethodBody body = md.getBody();
+            if (body == null)
+                continue;
+            Summary summary = new Summary(md.isFinal() || td.isFinal() || md.isStatic() || md.isPrivate()
+                || md.isConstructor());
+            summary.local = new LocalSummary(body, md.isConstructor());
+            summaries.put(new MemberInfo(md), summary);
+            solved = false;
+        }
+    }
+
+    /**
+     * @param mr method to look up
+     * @return summary of the method body or null if the method body was not
+     *         visited. Note that unless {@link Summary#isFinal()} is true, the
+     *         summary describes the given method only, not its overrides.
+     */
+    public Summary getSummary(MethodReference mr) {
+        return getSummary(new MemberInfo(mr));
+    }
+
+    public Summary getSummary(MemberInfo mi) {
+        synchronized (summaries) {
+            if (!solved) {
+                solve();
+                solved = true;
+            }
+        }
+        return summaries.get(mi);
+    }
+
+    public static class Summary {
+        private final boolean isFinal;
+        // null after the summary is solved
+        LocalSummary local;
+        boolean sideEffect;
+        boolean newObjectSideEffect;
+
+        Summary(boolean isFinal) {
+            this.isFinal = isFinal;
+        }
+
+        /**
+         * @return true if the method cannot be overridden, thus the summary is
+         *         valid for every call
+         */
+        public boolean isFinal() {
+            return isFinal;
+        }
+
+        public boolean mayHaveSideEffect() {
+            return sideEffect;
+        }
+
+        /**
+         * @return true if the constructor called on a newly created object may
+         *         have side effect besides initializing that object. Same as
+         *         {@link #mayHaveSideEffect()} for other methods.
+         */
+        public boolean mayHaveSideEffectOnNewObject() {
+            return newObjectSideEffect;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary [sideEffect=" + sideEffect + ", newObjectSideEffect=" + newObjectSideEffect + "]";
+        }
+    }
+
+    static class Call {
+        final MemberInfo target;
+        final boolean bound;
+        // constructor called on a newly created object
+        final boolean newObject;
+        // constructor called on the object under construction (super(...) or this(...))
+        final boolean self;
+        // known purity is checked only if the callee summary does not prove it
+        private MethodReference mr;
+        private Boolean knownPure;
+        Summary callee;
+
+        Call(MethodReference mr, boolean bound, boolean newObject, boolean self) {
+            this.target = new MemberInfo(mr);
+            this.bound = bound;
+            this.newObject = newObject;
+            this.self = self;
+            this.mr = mr;
+        }
+
+        /**
+         * @param newObjectCaller whether the calling constructor is called on a newly created object
+         * @return true if the call may have a side effect visible to the caller of the calling method
+         */
+        boolean mayHaveSideEffect(boolean newObjectCaller) {
+            boolean sideEffect = callee == null || (newObject || self && newObjectCaller ? callee.newObjectSideEffect
+                    : callee.sideEffect);
+            return sideEffect && !isKnownPure();
+        }
+
+        private boolean isKnownPure() {
+            if (knownPure == null) {
+                knownPure = Methods.isSideEffectFree(mr);
+                mr = null;
+            }
+            return knownPure;
+        }
+    }
+
+    static class LocalSummary {
+        final List<Call> calls = new ArrayList<>();
+        boolean sideEffect;
+        // constructor stores to the fields of the object under construction
+        boolean selfStore;
+
+        LocalSummary(MethodBody body, boolean constructor) {
+            // objects created by NEW which constructor is not called yet
+            int newObjects = 0;
+            boolean thisReassigned = false;
+            for (Instruction instr : body.getInstructions()) {
+                OpCode op = instr.getOpCode();
+                switch (op) {
+                case NEW:
+                    newObjects++;
+                    break;
+                case INVOKESPECIAL: {
+                    MethodReference mr = instr.getOperand(0);
+                    boolean newObject = false, self = false;
+                    if (mr.isConstructor()) {
+                        if (newObjects > 0) {
+                            newObjects--;
+                            newObject = true;
+                        } else {
+                            self = constructor;
+                        }
+                    }
+                    calls.add(new Call(mr, true, newObject, self));
+                    break;
+                }
+                case INVOKEINTERFACE:
+                case INVOKESTATIC:
+                case INVOKEVIRTUAL:
+                    calls.add(new Call(instr.getOperand(0), op == OpCode.INVOKESTATIC, false, false));
+                    break;
+                case ASTORE_0:
+                    thisReassigned = true;
+                    break;
+                case ASTORE:
+                    if (instr.getOperandCount() == 1 && instr.getOperand(0) instanceof VariableReference
+                        && ((VariableReference) instr.getOperand(0)).getSlot() == 0)
+                        thisReassigned = true;
+                    break;
+                case PUTFIELD:
+                    if (constructor && isSelfStore(instr))
+                        selfStore = true;
+                    else
+                        sideEffect = true;
+                    break;
+                case PUTSTATIC:
+                case INVOKEDYNAMIC:
+                case AASTORE:
+                case DASTORE:
+                case BASTORE:
+                case CASTORE:
+                case SASTORE:
+                case IASTORE:
+                case LASTORE:
+                case FASTORE:
+                    sideEffect = true;
+                    break;
+                default:
+                }
+            }
+            if (thisReassigned && selfStore) {
+                sideEffect = true;
+            }
+        }
+
+        /**
+         * Recognizes "aload_0; push value; putfield" without jumps inside, so
+         * the field of the object under construction is stored. Other stores
+         * are not analyzed.
+         */
+        private static boolean isSelfStore(Instruction putField) {
+            Instruction value = putField.getPrevious();
+            if (value == null || putField.hasLabel() || value.hasLabel())
+                return false;
+            OpCode op = value.getOpCode();
+            if (op.hasVariableStackBehavior() || op.getStackBehaviorPop() != StackBehavior.Pop0
+                || op.getStackBehaviorPush() == StackBehavior.Push0)
+                return false;
+            Instruction receiver = value.getPrevious();
+            return receiver != null && receiver.getOpCode() == OpCode.ALOAD_0;
+        }
+
+        void link(Map<MemberInfo, Summary> summaries) {
+            for (Call call : calls) {
+                Summary callee = summaries.get(call.target);
+                call.callee = callee != null && (call.bound || callee.isFinal()) ? callee : null;
+            }
+        }
+    }
+
+    private void solve() {
+        List<Summary> nodes = new ArrayList<>();
+        Map<Summary, Integer> ids = new IdentityHashMap<>();
+        for (Summary summary : summaries.values()) {
+            if (summary.local == null)
+                continue;
+            ids.put(summary, nodes.size());
+            nodes.add(summary);
+        }
+        for (Summary summary : nodes) {
+            summary.local.link(summaries);
+        }
+        List<List<List<Summary>>> levels = new ArrayList<>();
+        new SCCFinder(nodes, ids, levels).run();
+        for (List<List<Summary>> level : levels) {
+            level.parallelStream().forEach(MethodSummaries::solveComponent);
+        }
+    }
+
+    private static void solveComponent(List<Summary> component) {
+        for (Summary summary : component) {
+            summary.sideEffect = summary.local.sideEffect || summary.local.selfStore;
+            summary.newObjectSideEffect = summary.local.sideEffect;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Summary summary : component) {
+                changed |= update(summary);
+            }
+            if (component.size() == 1 && !component.get(0).local.calls.stream().anyMatch(
+                c -> c.callee == component.get(0))) {
+                // no recursion: single pass is enough
+                break;
+            }
+        }
+        for (Summary summary : component) {
+            // callers use only the solved state, so the calls are not necessary anymore
+            summary.local = null;
+        }
+    }
+
+    private static boolean update(Summary summary) {
+        boolean changed = false;
+        for (Call call : summary.local.calls) {
+            // side effect on a new object is a side effect for other calls as well
+            if (summary.newObjectSideEffect)
+                break;
+            if (!summary.sideEffect && call.mayHaveSideEffect(false)) {
+                summary.sideEffect = changed = true;
+            }
+            if (summary.sideEffect && call.mayHaveSideEffect(true)) {
+                summary.newObjectSideEffect = changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Tarjan's algorithm (iterative). Components are produced callees first;
+     * every component is assigned a level above all the components it calls.
+     */
+    private static class SCCFinder {
+        private final List<Summary> nodes;
+        private final Map<Summary, Integer> ids;
+        private final List<List<List<Summary>>> levels;
+        private final int[] index, lowLink, component;
+        private final boolean[] onStack;
+        private final Deque<Integer> stack = new ArrayDeque<>();
+        private final List<Integer> componentLevels = new ArrayList<>();
+        private int counter;
+
+        SCCFinder(List<Summary> nodes, Map<Summary, Integer> ids, List<List<List<Summary>>> levels) {
+            this.nodes = nodes;
+            this.ids = ids;
+            this.levels = levels;
+            int n = nodes.size();
+            index = new int[n];
+            lowLink = new int[n];
+            component = new int[n];
+            onStack = new boolean[n];
+            Arrays.fill(index, -1);
+        }
+
+        void run() {
+            for (int i = 0; i < nodes.size(); i++) {
+                if (index[i] == -1)
+                    visit(i);
+            }
+        }
+
+        private int[] callees(int node) {
+            // callees solved by previous query are not in ids
+            return nodes.get(node).local.calls.stream().filter(c -> ids.containsKey(c.callee)).mapToInt(
+                c -> ids.get(c.callee)).distinct().toArray();
+        }
+
+        private void visit(int root) {
+            Deque<int[]> work = new ArrayDeque<>();
+            Map<Integer, int[]> calleeCache = new HashMap<>();
+            enter(root);
+            work.push(new int[] { root, 0 });
+            while (!work.isEmpty()) {
+                int[] frame = work.peek();
+                int node = frame[0];
+                int[] callees = calleeCache.computeIfAbsent(node, this::callees);
+                if (frame[1] < callees.length) {
+                    int callee = callees[frame[1]++];
+                    if (index[callee] == -1) {
+                        enter(callee);
+                        work.push(new int[] { callee, 0 });
+                    } else if (onStack[callee]) {
+                        lowLink[node] = Math.min(lowLink[node], index[callee]);
+                    }
+                    continue;
+                }
+                work.pop();
+                calleeCache.remove(node);
+                if (!work.isEmpty()) {
+                    int parent = work.peek()[0];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    emitComponent(node, callees);
+                }
+            }
+        }
+
+        private void enter(int node) {
+            index[node] = lowLink[node] = counter++;
+            stack.push(node);
+            onStack[node] = true;
+        }
+
+        private void emitComponent(int root, int[] rootCallees) {
+            int id = componentLevels.size();
+            List<Summary> members = new ArrayList<>();
+            List<Integer> memberIds = new ArrayList<>();
+            int member;
+            do {
+                member = stack.pop();
+                onStack[member] = false;
+                component[member] = id;
+                members.add(nodes.get(member));
+                memberIds.add(member);
+            } while (member != root);
+            int level = 0;
+            for (int m : memberIds) {
+                for (int callee : m == root ? rootCallees : callees(m)) {
+                    if (component[callee] != id) {
+                        level = Math.max(level, componentLevels.get(component[callee]) + 1);
+                    }
+                }
+            }
+            componentLevels.add(level);
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(members);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.db;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.strobel.assembler.ir.Instruction;
+import com.strobel.assembler.metadata.DynamicCallSite;
+import com.strobel.assembler.metadata.FieldReference;
+import com.strobel.assembler.metadata.MemberReference;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.MethodHandle;
+import com.strobel.assembler.metadata.MethodReference;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.registry.AbstractTypeDatabase;
+import one.util.huntbugs.registry.anno.TypeDatabase;
+import one.util.huntbugs.util.Nodes;
+import one.util.huntbugs.util.RecordIndex;
+import one.util.huntbugs.util.Symbols;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+
+/**
+ * Graph of method calls and field accesses collected from the bytecode of the
+ * analyzed types while the databases are populated, so detectors can query it
+ * instead of rescanning the instructions. The bodies of the dependency types
+ * are not scanned, thus only the callers (readers, writers) from the analyzed
+ * types are known.
+ * 
+ * <p>
+ * Members are numbered in the order they are encountered. The edges are
+ * collected into plain int arrays and compressed into forward and reverse
+ * adjacency arrays (CSR: offsets per member and sorted unique targets) on the
+ * first query. Members are stored as referenced in the bytecode (not resolved
+ * to the declaring class). An invokedynamic call site bootstrapped by
+ * {@code LambdaMetafactory} is considered as a call of its implementation
+ * method (the lambda body or the referenced method); other invokedynamic call
+ * sites are ignored.
+ * 
+ * @author lan
+ */
+@TypeDatabase
+public class ReferenceGraph extends AbstractTypeDatabase<Boolean> {
+    private static final int CALL = 0;
+    private static final int READ = 1;
+    private static final int WRITE = 2;
+
+    // member ids keyed by type, name and signature symbol ids
+    private final Symbols symbols;
+    private final RecordIndex ids = new RecordIndex(false);
+    private final List<MemberInfo> members = new ArrayList<>();
+    private final EdgeList[] edges = { new EdgeList(), new EdgeList(), new EdgeList() };
+    private Adjacency[] forward, reverse;
+
+    public ReferenceGraph() {
+        this(new Symbols());
+    }
+
+    public ReferenceGraph(Symbols symbols) {
+        super(type -> Boolean.TRUE);
+        this.symbols = symbols;
+    }
+
+    @Override
+    protected boolean visitsDependencies() {
+        return false;
+    }
+
+    @Override
+    protected void visitType(TypeDefinition td) {
+        for (MethodDefinition md : td.getDeclaredMethods()) {
+            MethodBody body = md.getBody();
+            if (body == null)
+                continue;
+            int src = id(new MemberInfo(md));
+            for (Instruction instr : body.getInstructions()) {
+                switch (instr.getOpCode()) {
+                case GETFIELD:
+                case GETSTATIC:
+                    addEdge(READ, src, instr.<FieldReference> getOperand(0));
+                    continue;
+                case PUTFIELD:
+                case PUTSTATIC:
+                    addEdge(WRITE, src, instr.<FieldReference> getOperand(0));
+                    continue;
+                default:
+                }
+                for (int i = 0; i < instr.getOperandCount(); i++) {
+                    Object operand = instr.getOperand(i);
+                    if (operand instanceof MethodReference) {
+                        addEdge(CALL, src, (MethodReference) operand);
+                    } else if (operand instanceof DynamicCallSite) {
+                        MethodHandle mh = Nodes.getMethodHandle((DynamicCallSite) operand);
+                        if (mh != null) {
+                            addEdge(CALL, src, mh.getMethod());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addEdge(int kind, int src, MemberReference target) {
+        edges[kind].add(src, id(new MemberInfo(target)));
+        forward = reverse = null;
+    }
+
+    private int id(MemberInfo mi) {
+        int type = symbols.id(mi.getTypeName()), name = symbols.id(mi.getName()), sig = symbols.id(mi.getSignature());
+        int id = ids.get(type, name, sig, -1);
+        if (id == -1) {
+            id = members.size();
+            ids.put(type, name, sig, id);
+            members.add(mi);
+        }
+        return id;
+    }
+
+    /**
+     * @param method caller
+     * @return methods called from the given method body
+     */
+    public List<MemberInfo> getCallees(MemberInfo method) {
+        return query(true, CALL, method);
+    }
+
+    /**
+     * @param method callee
+     * @return methods which call the given method (as referenced in the
+     *         bytecode)
+     */
+    public List<MemberInfo> getCallers(MemberInfo method) {
+        return query(false, CALL, method);
+    }
+
+    public List<MemberInfo> getReadFields(MemberInfo method) {
+        return query(true, READ, method);
+    }
+
+    public List<MemberInfo> getWrittenFields(MemberInfo method) {
+        return query(true, WRITE, method);
+    }
+
+    public List<MemberInfo> getReaders(MemberInfo field) {
+        return query(false, READ, field);
+    }
+
+    public List<MemberInfo> getWriters(MemberInfo field) {
+        return query(false, WRITE, field);
+    }
+
+    private List<MemberInfo> query(boolean isForward, int kind, MemberInfo mi) {
+        Adjacency adjacency;
+        synchronized (ids) {
+            if (forward == null) {
+                forward = new Adjacency[edges.length];
+                reverse = new Adjacency[edges.length];
+                for (int i = 0; i < edges.length; i++) {
+                    forward[i] = new Adjacency(members.size(), edges[i].src, edges[i].dst, edges[i].size);
+                    reverse[i] = new Adjacency(members.size(), edges[i].dst, edges[i].src, edges[i].size);
+                }
+            }
+            adjacency = (isForward ? forward : reverse)[kind];
+        }
+        int id = ids.get(symbols.find(mi.getTypeName()), symbols.find(mi.getName()), symbols.find(mi.getSignature()),
+            -1);
+        if (id == -1 || id >= adjacency.offsets.length - 1)
+            return Collections.emptyList();
+        int from = adjacency.offsets[id], to = adjacency.offsets[id + 1];
+        if (from == to)
+            return Collections.emptyList();
+        return new AbstractList<MemberInfo>() {
+            @Override
+            public MemberInfo get(int index) {
+                if (index < 0 || index >= to - from)
+                    throw new IndexOutOfBoundsException();
+                return members.get(adjacency.targets[from + index]);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    static final class EdgeList {
+        int[] src = new int[16];
+        int[] dst = new int[16];
+        int size;
+
+        void add(int from, int to) {
+            if (size == src.length) {
+                src = Arrays.copyOf(src, size * 2);
+                dst = Arrays.copyOf(dst, size * 2);
+            }
+            src[size] = from;
+            dst[size++] = to;
+        }
+    }
+
+    static final class Adjacency {
+        final int[] offsets;
+        final int[] targets;
+
+        Adjacency(int nodes, int[] src, int[] dst, int size) {
+            int[] offsets = new int[nodes + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[src[i] + 1]++;
+            }
+            for (int i = 0; i < nodes; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] targets = new int[size];
+            int[] pos = Arrays.copyOf(offsets, nodes);
+            for (int i = 0; i < size; i++) {
+                targets[pos[src[i]]++] = dst[i];
+            }
+            // sort every row and remove duplicates compacting the arrays
+            int out = 0;
+            for (int node = 0; node < nodes; node++) {
+                int from = offsets[node], to = offsets[node + 1];
+                Arrays.sort(targets, from, to);
+                offsets[node] = out;
+                for (int i = from; i < to; i++) {
+                    if (i == from || targets[i] != targets[i - 1]) {
+                        targets[out++] = targets[i];
+                    }
+                }
+            }
+            offsets[nodes] = out;
+            this.offsets = offsets;
+            this.targets = out == size ? targets : Arrays.copyOf(targets, out);
+        }
+    }
+}
@@ -19,10 +19,12 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -34,6 +36,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
  *
  */
 @WarningDefinition(category = "Correctness", name = "AppendObjectOutputStream", maxScore = 65)
+@UsesFacts(Fact.CONST)
 public class AppendObjectOutputStream {
     private static final LocationRole STREAM_CREATED_AT = LocationRole.forName("STREAM_CREATED_AT");
     private static final TypeRole OOS_TYPE = TypeRole.forName("OOS_TYPE");
@@ -19,10 +19,12 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.NodeChain;
@@ -39,6 +41,7 @@ import one.util.huntbugs.warning.Role.NumberRole;
 @WarningDefinition(category = "Correctness", name = "ArrayIndexOutOfRange", maxScore = 85)
 @WarningDefinition(category = "Correctness", name = "ArrayOffsetOutOfRange", maxScore = 85)
 @WarningDefinition(category = "Correctness", name = "ArrayLengthOutOfRange", maxScore = 85)
+@UsesFacts(Fact.CONST)
 public class ArrayRangeCheck {
     private static final NumberRole MAX_LENGTH = NumberRole.forName("MAX_LENGTH");  
     private static final long IMPOSSIBLE_ARRAY_LENGTH = Integer.MAX_VALUE + 1L;
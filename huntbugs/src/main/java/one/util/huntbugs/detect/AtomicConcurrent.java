@@ -24,10 +24,12 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.NodeChain;
@@ -40,6 +42,7 @@ import one.util.huntbugs.warning.Role.MemberRole;
  *
  */
 @WarningDefinition(category = "Multithreading", name = "NonAtomicOperationOnConcurrentMap", maxScore = 70)
+@UsesFacts(Fact.PURITY)
 public class AtomicConcurrent {
     private static final MemberRole FIRST_METHOD = MemberRole.forName("FIRST_METHOD"); 
     private static final MemberRole SECOND_METHOD = MemberRole.forName("SECOND_METHOD"); 
@@ -18,9 +18,11 @@ package one.util.huntbugs.detect;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -30,6 +32,7 @@ import one.util.huntbugs.util.Nodes;
  *
  */
 @WarningDefinition(category = "BadPractice", name = "AverageComputationCouldOverflow", maxScore = 35)
+@UsesFacts(Fact.CONST)
 public class AverageComputation {
     @AstVisitor(nodes = AstNodes.EXPRESSIONS)
     public void visitExpression(Expression expr, MethodContext mc) {
@@ -21,10 +21,12 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Methods;
@@ -49,6 +51,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "BadPractice", name = "BitCheckGreater", maxScore = 35)
 @WarningDefinition(category = "Correctness", name = "BitOrSignedByte", maxScore = 50)
 @WarningDefinition(category = "Correctness", name = "BitAddSignedByte", maxScore = 35)
+@UsesFacts(Fact.CONST)
 public class BadMath {
     private static final NumberRole COMPARED_TO = NumberRole.forName("COMPARED_TO");
     private static final NumberRole AND_OPERAND = NumberRole.forName("AND_OPERAND");
@@ -27,12 +27,14 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.flow.etype.EType;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Methods;
@@ -65,6 +67,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
 @WarningDefinition(category = "Correctness", name = "CollectionAddedToItself", maxScore = 65)
 @WarningDefinition(category = "RedundantCode", name = "NullCheckMethodForConstant", maxScore = 65)
 @WarningDefinition(category = "Correctness", name = "WrongArgumentOrder", maxScore = 65)
+@UsesFacts({Fact.CONST, Fact.ETYPE, Fact.PURITY})
 public class BadMethodCalls {
     private static final TypeDefinition STREAM_TYPE = Types.lookupJdkType("java/util/stream/Stream");
     private static final TypeReference CHAR_ARRAY_TYPE = BuiltinTypes.Character.makeArrayType();
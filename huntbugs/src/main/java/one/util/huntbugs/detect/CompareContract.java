@@ -21,11 +21,13 @@ import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.util.Types;
@@ -35,6 +37,7 @@ import one.util.huntbugs.util.Types;
  *
  */
 @WarningDefinition(category="BadPractice", name="CompareReturnsMinValue", maxScore=40)
+@UsesFacts(Fact.CONST)
 public class CompareContract {
     private static final Integer MIN_VALUE = Integer.valueOf(Integer.MIN_VALUE);
 
@@ -21,10 +21,12 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -37,6 +39,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category = "BadPractice", name = "NegatingComparatorResult", maxScore = 50)
 @WarningDefinition(category = "Correctness", name = "ComparingComparatorResultWithNumber", maxScore = 70)
+@UsesFacts(Fact.CONST)
 public class CompareUsage {
     @AstVisitor(nodes = AstNodes.EXPRESSIONS)
     public void visit(Expression expr, MethodContext mc) {
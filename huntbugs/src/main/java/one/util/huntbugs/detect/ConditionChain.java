@@ -24,8 +24,10 @@ import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Roles;
@@ -37,6 +39,7 @@ import one.util.huntbugs.warning.Role.LocationRole;
  */
 @WarningDefinition(category = "RedundantCode", name = "SameConditions", maxScore = 50)
 @WarningDefinition(category = "RedundantCode", name = "SameConditionsExcluding", maxScore = 75)
+@UsesFacts(Fact.PURITY)
 public class ConditionChain {
     private static final LocationRole SAME_CONDITION = LocationRole.forName("SAME_CONDITION");
 
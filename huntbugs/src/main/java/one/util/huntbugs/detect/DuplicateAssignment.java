@@ -24,8 +24,10 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.NodeChain;
@@ -37,6 +39,7 @@ import one.util.huntbugs.warning.Role.LocationRole;
  *
  */
 @WarningDefinition(category="RedundantCode", name="FieldDoubleAssignment", maxScore=65)
+@UsesFacts(Fact.PURITY)
 public class DuplicateAssignment {
     private static final LocationRole DUPLICATE_ASSIGNMENT_AT = LocationRole.forName("DUPLICATE_ASSIGNMENT_AT");
     
@@ -23,10 +23,12 @@ import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.ClassVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -36,6 +38,7 @@ import one.util.huntbugs.util.Nodes;
  *
  */
 @WarningDefinition(category = "RedundantCode", name = "UselessEasyMockCall", maxScore = 50)
+@UsesFacts(Fact.CONST)
 public class EasyMockProblems {
     @ClassVisitor
     public boolean check(TypeDefinition td) {
@@ -32,11 +32,13 @@ import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.ClassContext;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.ClassVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.VisitOrder;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
@@ -62,6 +64,7 @@ import one.util.huntbugs.warning.Role.MemberRole;
 @WarningDefinition(category = "BadPractice", name = "EqualsObjectHashCode", maxScore = 45)
 @WarningDefinition(category = "BadPractice", name = "EqualsNoHashCode", maxScore = 55)
 @WarningDefinition(category = "Correctness", name = "EqualsSuspiciousFieldComparison", maxScore = 60)
+@UsesFacts(Fact.CONST)
 public class EqualsContract {
     private static final MemberRole NORMAL_EQUALS = MemberRole.forName("NORMAL_EQUALS");
     private static final MemberRole OTHER_FIELD = MemberRole.forName("OTHER_FIELD");
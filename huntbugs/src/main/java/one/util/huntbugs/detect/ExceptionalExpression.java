@@ -18,10 +18,12 @@ package one.util.huntbugs.detect;
 import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.flow.Exceptional;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.NodeChain;
 import one.util.huntbugs.warning.Roles;
@@ -32,6 +34,7 @@ import one.util.huntbugs.warning.WarningAnnotation.TypeInfo;
  *
  */
 @WarningDefinition(category="Correctness", name="ExceptionalExpression", maxScore=80)
+@UsesFacts(Fact.CONST)
 public class ExceptionalExpression {
     @AstVisitor(nodes=AstNodes.EXPRESSIONS)
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
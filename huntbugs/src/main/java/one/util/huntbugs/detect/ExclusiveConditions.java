@@ -23,10 +23,12 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Equi;
 import one.util.huntbugs.util.Methods;
@@ -39,6 +41,7 @@ import one.util.huntbugs.warning.Role.StringRole;
  */
 @WarningDefinition(category = "Correctness", name = "AndEqualsAlwaysFalse", maxScore = 85)
 @WarningDefinition(category = "Correctness", name = "OrNotEqualsAlwaysTrue", maxScore = 70)
+@UsesFacts({Fact.CONST, Fact.PURITY})
 public class ExclusiveConditions {
     private static final StringRole CONST1 = StringRole.forName("CONST1");
     private static final StringRole CONST2 = StringRole.forName("CONST2");
@@ -37,6 +37,7 @@ import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.FieldStats;
 import one.util.huntbugs.db.Mutability;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.FieldContext;
@@ -45,6 +46,7 @@ import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.FieldVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.VisitOrder;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.AccessLevel;
@@ -82,6 +84,7 @@ import one.util.huntbugs.warning.WarningAnnotation.Location;
 @WarningDefinition(category = "MaliciousCode", name = "ExposeMutableFieldViaReturnValue", maxScore = 35)
 @WarningDefinition(category = "MaliciousCode", name = "ExposeMutableStaticFieldViaReturnValue", maxScore = 50)
 @WarningDefinition(category = "MaliciousCode", name = "MutableEnumField", maxScore = 55)
+@UsesFacts(Fact.CONST)
 public class FieldAccess {
     private static final Set<String> MUTABLE_COLLECTION_CLASSES = new HashSet<>(Arrays.asList("java/util/ArrayList",
         "java/util/HashSet", "java/util/HashMap", "java/util/Hashtable", "java/util/IdentityHashMap",
@@ -16,9 +16,11 @@
 package one.util.huntbugs.detect;
 
 import com.strobel.decompiler.ast.Expression;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Roles;
@@ -29,6 +31,7 @@ import one.util.huntbugs.warning.Role.StringRole;
  *
  */
 @WarningDefinition(category="Correctness", name="FloatCompareToNaN", maxScore = 90)
+@UsesFacts(Fact.CONST)
 public class FloatingPointNaN {
     private static final StringRole USED_TYPE = StringRole.forName("USED_TYPE");
     
@@ -24,8 +24,10 @@ import com.strobel.decompiler.ast.Loop;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -38,6 +40,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "Correctness", name = "InfiniteLoop", maxScore = 90)
 @WarningDefinition(category = "Correctness", name = "InvariantLoopCondition", maxScore = 60)
 @WarningDefinition(category = "Correctness", name = "InvariantLoopConditionPart", maxScore = 55)
+@UsesFacts({Fact.CONST, Fact.PURITY})
 public class InfiniteLoop {
     @AstVisitor
     public void visit(Node node, MethodContext mc) {
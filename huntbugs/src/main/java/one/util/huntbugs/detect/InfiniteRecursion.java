@@ -29,11 +29,13 @@ import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Switch;
 import com.strobel.decompiler.ast.TryCatchBlock;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.NodeChain;
@@ -44,6 +46,7 @@ import one.util.huntbugs.util.Nodes;
  *
  */
 @WarningDefinition(category = "Correctness", name = "InfiniteRecursion", maxScore = 90)
+@UsesFacts(Fact.PURITY)
 public class InfiniteRecursion {
     boolean stateChange;
     boolean controlTransfer;
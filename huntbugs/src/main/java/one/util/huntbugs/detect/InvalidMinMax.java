@@ -20,8 +20,10 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Role.NumberRole;
@@ -32,6 +34,7 @@ import one.util.huntbugs.warning.Role.StringRole;
  *
  */
 @WarningDefinition(category = "Correctness", name = "InvalidMinMax", maxScore = 80)
+@UsesFacts(Fact.CONST)
 public class InvalidMinMax {
     private static final NumberRole OUTER_NUMBER = NumberRole.forName("OUTER_NUMBER");
     private static final NumberRole INNER_NUMBER = NumberRole.forName("INNER_NUMBER");
@@ -26,11 +26,13 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -42,6 +44,7 @@ import one.util.huntbugs.util.Types;
  */
 @WarningDefinition(category = "BadPractice", name = "IteratorHasNextCallsNext", maxScore = 70)
 @WarningDefinition(category = "BadPractice", name = "IteratorNoThrow", maxScore = 60)
+@UsesFacts(Fact.PURITY)
 public class IteratorContract {
     @MethodVisitor
     public boolean check(TypeDefinition td) {
@@ -20,9 +20,11 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import one.util.huntbugs.flow.CFG.EdgeType;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Methods;
@@ -36,6 +38,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category = "RedundantCode", name = "ResultOfComparisonIsStaticallyKnown", maxScore = 50)
 @WarningDefinition(category = "RedundantCode", name = "ResultOfComparisonIsStaticallyKnownDeadCode", maxScore = 70)
+@UsesFacts(Fact.CONST)
 public class KnownComparison {
     private static final StringRole RESULT = StringRole.forName("RESULT");
     private static final StringRole LEFT_OPERAND = StringRole.forName("LEFT_OPERAND");
@@ -20,8 +20,10 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Methods;
 import one.util.huntbugs.util.NodeChain;
@@ -34,6 +36,7 @@ import one.util.huntbugs.util.Types;
  */
 @WarningDefinition(category="Correctness", name="AbsoluteValueOfHashCode", maxScore=60)
 @WarningDefinition(category="Correctness", name="AbsoluteValueOfRandomInt", maxScore=55)
+@UsesFacts(Fact.CONST)
 public class MinValueHandling {
     @AstVisitor
     public void visit(Node node, NodeChain chain, MethodContext mc) {
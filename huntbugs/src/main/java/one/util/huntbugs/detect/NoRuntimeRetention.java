@@ -24,9 +24,11 @@ import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.DeclaredAnnotations;
 import one.util.huntbugs.db.DeclaredAnnotations.DeclaredAnnotation;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Role.TypeRole;
@@ -36,6 +38,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
  *
  */
 @WarningDefinition(category = "Correctness", name = "AnnotationNoRuntimeRetention", maxScore = 75)
+@UsesFacts(Fact.CONST)
 public class NoRuntimeRetention {
     private static final TypeRole ANNOTATION = TypeRole.forName("ANNOTATION");
 
@@ -22,10 +22,12 @@ import com.strobel.assembler.metadata.JvmType;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Equi;
 import one.util.huntbugs.util.Exprs;
@@ -36,6 +38,7 @@ import one.util.huntbugs.warning.WarningAnnotation;
 
 @WarningDefinition(category = "CodeStyle", name = "NonShortCircuit", maxScore = 50)
 @WarningDefinition(category = "Correctness", name = "NonShortCircuitDangerous", maxScore = 80)
+@UsesFacts(Fact.PURITY)
 public class NonShortCircuit {
     @AstVisitor(nodes=AstNodes.EXPRESSIONS)
     public void visitNode(Expression node, NodeChain nc, MethodContext ctx) {
@@ -23,6 +23,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.Nullness;
 import one.util.huntbugs.flow.CFG.EdgeType;
@@ -30,6 +31,7 @@ import one.util.huntbugs.flow.Nullness.NullState;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Methods;
 import one.util.huntbugs.util.NodeChain;
@@ -52,6 +54,7 @@ import one.util.huntbugs.warning.Role.ExpressionRole;
 @WarningDefinition(category = "RedundantCode", name = "RedundantComparisonNull", maxScore = 60)
 @WarningDefinition(category = "RedundantCode", name = "RedundantComparisonNullNonNull", maxScore = 60)
 @WarningDefinition(category = "RedundantCode", name = "RedundantEqualsNullCheck", maxScore = 60)
+@UsesFacts(Fact.NULL)
 public class NullCheck {
     private static final ExpressionRole NONNULL_EXPRESSION = ExpressionRole.forName("NONNULL_EXPRESSION");
     private static final ExpressionRole NULL_EXPRESSION = ExpressionRole.forName("NULL_EXPRESSION");
@@ -22,10 +22,12 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Roles;
@@ -38,6 +40,7 @@ import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
  */
 @WarningDefinition(category = "Performance", name = "NumberConstructor", maxScore = 45)
 @WarningDefinition(category = "Performance", name = "BooleanConstructor", maxScore = 55)
+@UsesFacts(Fact.CONST)
 public class NumberConstructor {
     @AstVisitor(nodes = AstNodes.EXPRESSIONS)
     public void visit(Expression expr, MethodContext ctx, MethodDefinition md) {
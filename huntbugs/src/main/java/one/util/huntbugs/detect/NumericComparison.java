@@ -32,10 +32,12 @@ import com.strobel.decompiler.ast.Switch;
 
 import one.util.huntbugs.flow.CFG.EdgeType;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -51,6 +53,7 @@ import one.util.huntbugs.warning.Role.StringRole;
 @WarningDefinition(category = "Correctness", name = "ComparisonWithOutOfRangeValue", maxScore = 80)
 @WarningDefinition(category = "RedundantCode", name = "SwitchBranchUnreachable", maxScore = 75)
 @WarningDefinition(category = "BadPractice", name = "CheckForOddnessFailsForNegative", maxScore = 40)
+@UsesFacts(Fact.CONST)
 public class NumericComparison {
     private static final LongRange SHORT_RANGE = new LongRange(Short.MIN_VALUE, Short.MAX_VALUE);
     private static final LongRange CHAR_RANGE = new LongRange(Character.MIN_VALUE, Character.MAX_VALUE);
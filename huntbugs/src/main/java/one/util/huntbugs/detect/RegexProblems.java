@@ -25,9 +25,11 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -41,6 +43,7 @@ import one.util.huntbugs.warning.Role.StringRole;
 @WarningDefinition(category="Correctness", name="RegexUnintended", maxScore=85)
 @WarningDefinition(category="Correctness", name="RegexFileSeparator", maxScore=70)
 @WarningDefinition(category="Correctness", name="RegexBadSyntax", maxScore=80)
+@UsesFacts(Fact.CONST)
 public class RegexProblems {
     private static final StringRole ERROR_MESSAGE = StringRole.forName("ERROR_MESSAGE");
     
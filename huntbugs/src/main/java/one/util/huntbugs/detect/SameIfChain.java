@@ -28,8 +28,10 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Equi;
 import one.util.huntbugs.util.Exprs;
@@ -43,6 +45,7 @@ import one.util.huntbugs.warning.Roles;
  *
  */
 @WarningDefinition(category = "RedundantCode", name = "SameConditionChain", maxScore = 50)
+@UsesFacts(Fact.PURITY)
 public class SameIfChain {
     private static final LocationRole SAME_CONDITION_AT = LocationRole.forName("SAME_CONDITION_AT");
     private static final ExpressionRole SAME_EXPRESSION = ExpressionRole.forName("SAME_EXPRESSION");
@@ -24,9 +24,11 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Nodes;
@@ -40,6 +42,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category="Correctness", name="SelfAssignmentLocal", maxScore=80)
 @WarningDefinition(category="Correctness", name="SelfAssignmentLocalInsteadOfField", maxScore=90)
 @WarningDefinition(category="Correctness", name="SelfAssignmentArrayElement", maxScore=80)
+@UsesFacts(Fact.PURITY)
 public class SelfAssignment {
     @AstVisitor(nodes=AstNodes.EXPRESSIONS)
     public void visit(Expression expr, MethodContext mc, MethodDefinition md, TypeDefinition td) {
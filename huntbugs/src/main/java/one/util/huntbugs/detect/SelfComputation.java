@@ -20,9 +20,11 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Methods;
@@ -36,6 +38,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "Correctness", name = "SelfComputation", maxScore = 70)
 @WarningDefinition(category = "Correctness", name = "SelfComparison", maxScore = 70)
 @WarningDefinition(category = "Correctness", name = "SelfEquals", maxScore = 70)
+@UsesFacts(Fact.PURITY)
 public class SelfComputation {
     @AstVisitor(nodes = AstNodes.EXPRESSIONS)
     public void visit(Expression expr, MethodContext mc) {
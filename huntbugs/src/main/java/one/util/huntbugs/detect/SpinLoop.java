@@ -23,8 +23,10 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Loop;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Roles;
@@ -34,6 +36,7 @@ import one.util.huntbugs.warning.Roles;
  *
  */
 @WarningDefinition(category = "Multithreading", name = "SpinLoopOnField", maxScore = 70)
+@UsesFacts(Fact.PURITY)
 public class SpinLoop {
     @AstVisitor
     public void visit(Node node, MethodContext mc) {
@@ -20,10 +20,12 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 
@@ -33,6 +35,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category="Correctness", name="BadResultSetArgument", maxScore=75)
 @WarningDefinition(category="Correctness", name="BadPreparedStatementArgument", maxScore=75)
+@UsesFacts(Fact.CONST)
 public class SqlBadArgument {
     @AstVisitor(nodes=AstNodes.EXPRESSIONS)
     public void visit(Expression expr, MethodContext mc) {
@@ -19,9 +19,11 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Roles;
@@ -34,6 +36,7 @@ import one.util.huntbugs.warning.Role.NumberRole;
 @WarningDefinition(category = "RedundantCode", name = "UselessStringSubstring", maxScore = 50)
 @WarningDefinition(category = "RedundantCode", name = "StringIndexIsLessThanZero", maxScore = 60)
 @WarningDefinition(category = "RedundantCode", name = "StringIndexIsGreaterThanAllowed", maxScore = 60)
+@UsesFacts(Fact.CONST)
 public class StringIndex {
     private static final NumberRole INDEX = NumberRole.forName("INDEX");
 
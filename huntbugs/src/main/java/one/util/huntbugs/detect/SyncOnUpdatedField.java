@@ -18,9 +18,11 @@ package one.util.huntbugs.detect;
 import com.strobel.assembler.metadata.FieldReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.NodeChain;
 import one.util.huntbugs.util.Nodes;
@@ -30,6 +32,7 @@ import one.util.huntbugs.util.Nodes;
  *
  */
 @WarningDefinition(category="Multithreading", name="SynchronizationOnUpdatedField", maxScore=65)
+@UsesFacts(Fact.PURITY)
 public class SyncOnUpdatedField {
     @AstVisitor(nodes=AstNodes.EXPRESSIONS)
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
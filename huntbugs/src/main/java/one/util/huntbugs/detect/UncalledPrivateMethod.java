@@ -20,17 +20,12 @@ import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-import com.strobel.assembler.ir.Instruction;
-import com.strobel.assembler.metadata.DynamicCallSite;
-import com.strobel.assembler.metadata.MethodBody;
 import com.strobel.assembler.metadata.MethodDefinition;
-import com.strobel.assembler.metadata.MethodHandle;
-import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
+import one.util.huntbugs.db.ReferenceGraph;
 import one.util.huntbugs.registry.AbstractTypeDatabase;
 import one.util.huntbugs.registry.ClassContext;
 import one.util.huntbugs.registry.anno.ClassVisitor;
@@ -38,7 +33,6 @@ import one.util.huntbugs.registry.anno.TypeDatabase;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Annotations;
 import one.util.huntbugs.util.Methods;
-import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.util.Types;
 import one.util.huntbugs.warning.Roles;
 import one.util.huntbugs.warning.WarningAnnotation;
@@ -55,35 +49,36 @@ public class UncalledPrivateMethod {
     
     @TypeDatabase
     public static class NestedAnonymousCalls extends AbstractTypeDatabase<Void> {
-        Set<MemberInfo> mis = new HashSet<>();
+        Set<String> types = new HashSet<>();
         
         public NestedAnonymousCalls() {
             super(tr -> null);
         }
 
+        @Override
+        protected boolean visitsDependencies() {
+            // ReferenceGraph knows callers from the analyzed types only
+            return false;
+        }
+
         @Override
         protected void visitType(TypeDefinition td) {
             TypeReference tr = td.getDeclaringType();
             if(tr == null) return;
             TypeDefinition outer = tr.resolve();
             if(outer == null || !outer.isAnonymous()) return;
-            for(MethodDefinition md : td.getDeclaredMethods()) {
-                extractCalls(md, mr -> {
-                    mis.add(new MemberInfo(mr));
-                    return true;
-                });
-            }
+            types.add(td.getInternalName());
         }
         
-        public boolean isCalled(MemberInfo mi) {
-            return mis.contains(mi);
+        public boolean isCalled(MemberInfo mi, ReferenceGraph graph) {
+            return graph.getCallers(mi).stream().anyMatch(caller -> types.contains(caller.getTypeName()));
         }
     }
     
     private final Map<MemberInfo, Set<MemberInfo>> candidates = new LinkedHashMap<>();
     
     @ClassVisitor
-    public void visitType(TypeDefinition td, ClassContext cc, NestedAnonymousCalls nac) {
+    public void visitType(TypeDefinition td, ClassContext cc, NestedAnonymousCalls nac, ReferenceGraph graph) {
         if(Types.isInstance(td, "com/sun/jna/Callback"))
             return;
         for(MethodDefinition md : td.getDeclaredMethods()) {
@@ -101,7 +96,7 @@ public class UncalledPrivateMethod {
                 if (!md.isSpecialName() && !md.isPrivate() && !md.isSynthetic() && Methods.findSuperMethod(
                     md) == null) {
                     MemberInfo mi = new MemberInfo(md);
-                    if(!nac.isCalled(mi)) {
+                    if(!nac.isCalled(mi, graph)) {
                         candidates.put(mi, new HashSet<>());
                     }
                 }
@@ -110,10 +105,12 @@ public class UncalledPrivateMethod {
         for(MethodDefinition md : td.getDeclaredMethods()) {
             if(candidates.isEmpty())
                 return;
-            extractCalls(md, mr -> {
-                link(md, mr);
-                return !candidates.isEmpty();
-            });
+            MemberInfo from = new MemberInfo(md);
+            for(MemberInfo to : graph.getCallees(from)) {
+                link(from, to);
+                if(candidates.isEmpty())
+                    return;
+            }
         }
         while(!candidates.isEmpty()) {
             MemberInfo mi = candidates.keySet().iterator().next();
@@ -143,33 +140,9 @@ public class UncalledPrivateMethod {
         }
     }
     
-    static void extractCalls(MethodDefinition md, Predicate<MethodReference> action) {
-        MethodBody body = md.getBody();
-        if(body == null)
-            return;
-        for(Instruction inst : body.getInstructions()) {
-            for(int i=0; i<inst.getOperandCount(); i++) {
-                Object operand = inst.getOperand(i);
-                if(operand instanceof MethodReference) {
-                    if(!action.test((MethodReference)operand))
-                        return;
-                }
-                if(operand instanceof DynamicCallSite) {
-                    MethodHandle mh = Nodes.getMethodHandle((DynamicCallSite) operand);
-                    if(mh != null) {
-                        if(!action.test(mh.getMethod()))
-                            return;
-                    }
-                }
-            }
-        }
-    }
-    
-    private void link(MethodReference from, MethodReference to) {
-        MemberInfo miTo = new MemberInfo(to);
+    private void link(MemberInfo miFrom, MemberInfo miTo) {
         if(!candidates.containsKey(miTo))
             return;
-        MemberInfo miFrom = new MemberInfo(from);
         Set<MemberInfo> curCandidate = candidates.get(miFrom);
         if(curCandidate == null) {
             remove(miTo);
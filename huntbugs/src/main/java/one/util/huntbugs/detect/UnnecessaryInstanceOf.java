@@ -29,12 +29,14 @@ import com.strobel.decompiler.ast.Variable;
 
 import one.util.huntbugs.flow.CFG.EdgeType;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.flow.etype.EType;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Methods;
 import one.util.huntbugs.util.Nodes;
@@ -51,6 +53,7 @@ import one.util.huntbugs.warning.WarningAnnotation;
 @WarningDefinition(category = "Correctness", name = "ImpossibleInstanceOf", maxScore = 70)
 @WarningDefinition(category = "Correctness", name = "ImpossibleCast", maxScore = 70)
 @WarningDefinition(category = "Correctness", name = "ClassComparisonFalse", maxScore = 70)
+@UsesFacts({Fact.CONST, Fact.ETYPE})
 public class UnnecessaryInstanceOf {
     private static final StringRole ETYPE = StringRole.forName("ETYPE");
 
@@ -22,10 +22,12 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.Hierarchy.TypeHierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Methods;
@@ -37,6 +39,7 @@ import one.util.huntbugs.warning.Roles;
  *
  */
 @WarningDefinition(category="BadPractice", name="UnsafeGetResource", maxScore=60)
+@UsesFacts(Fact.CONST)
 public class UnsafeGetResource {
     @MethodVisitor
     public boolean checkMethod(MethodDefinition md, TypeDefinition td) {
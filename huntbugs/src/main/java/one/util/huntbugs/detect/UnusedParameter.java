@@ -29,10 +29,12 @@ import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
 import one.util.huntbugs.db.Hierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.ClassVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.AccessLevel;
 import one.util.huntbugs.util.Annotations;
@@ -49,6 +51,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "Correctness", name = "MethodParameterIsNotPassed", maxScore = 65)
 @WarningDefinition(category = "Correctness", name = "ParameterOverwritten", maxScore = 60)
 @WarningDefinition(category = "RedundantCode", name = "MethodParameterIsNotUsed", maxScore = 35)
+@UsesFacts(Fact.CONST)
 public class UnusedParameter {
     @ClassVisitor
     public boolean checkClass(TypeDefinition td) {
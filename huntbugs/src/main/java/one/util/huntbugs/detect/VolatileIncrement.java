@@ -25,9 +25,11 @@ import com.strobel.assembler.metadata.MethodDefinition;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.NodeChain;
@@ -39,6 +41,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category = "Multithreading", name = "VolatileIncrement", maxScore = 85)
 @WarningDefinition(category = "Multithreading", name = "VolatileMath", maxScore = 85)
+@UsesFacts(Fact.PURITY)
 public class VolatileIncrement {
     @AstVisitor(nodes=AstNodes.EXPRESSIONS)
     public void visitNode(Expression node, MethodContext ctx, NodeChain parents, MethodDefinition md) {
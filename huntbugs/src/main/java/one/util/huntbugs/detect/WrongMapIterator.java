@@ -24,11 +24,13 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.NodeChain;
@@ -42,6 +44,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category = "Performance", name = "WrongMapIterator", maxScore = 48)
 @WarningDefinition(category = "Performance", name = "WrongMapIteratorValues", maxScore = 55)
+@UsesFacts(Fact.PURITY)
 public class WrongMapIterator {
     @AstVisitor(nodes = AstNodes.EXPRESSIONS)
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
@@ -51,6 +51,25 @@ abstract class Annotator<T> {
         return data == null ? defValue : data;
     }
     
+    protected T get(FactStore.Slot slot) {
+        @SuppressWarnings("unchecked")
+        T data = (T) slot.get(idx);
+        return data == null ? defValue : data;
+    }
+    
+    protected void put(FactStore.Slot slot, T data) {
+        slot.put(idx, data);
+    }
+    
+    /**
+     * @param store fact store of some method
+     * @return true if the facts of this annotator were not computed for the store yet, so the caller must compute
+     *         them now
+     */
+    protected boolean markComputed(FactStore store) {
+        return store.markComputed(idx);
+    }
+
     protected void putIfAbsent(Expression expr, T data) {
         Annotators.replace(expr, idx, null, data);
     }
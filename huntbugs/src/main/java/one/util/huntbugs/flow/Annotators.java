@@ -18,7 +18,6 @@ package one.util.huntbugs.flow;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.strobel.componentmodel.Key;
 import com.strobel.decompiler.ast.Expression;
 
 /**
@@ -31,7 +30,6 @@ public class Annotators {
     }
     
     private static final List<String> names = new ArrayList<>();
-    private static final Key<Object[]> hbData = Key.create("hb.data");
     
     // Order of declaration might be important
     
@@ -42,34 +40,29 @@ public class Annotators {
         return names.size()-1;
     }
     
+    static int count() {
+        return names.size();
+    }
+    
     static Object get(Expression expr, int i) {
-        Object[] data = expr.getUserData(hbData);
-        return data == null ? null : data[i];
+        FactStore.Slot slot = FactStore.slot(expr);
+        return slot == null ? null : slot.get(i);
     }
     
     static void put(Expression expr, int i, Object data) {
-        Object[] userData = expr.getUserData(hbData);
-        if(userData == null) {
-            userData = new Object[names.size()];
-            expr.putUserData(hbData, userData);
-        }
-        userData[i] = data;
+        FactStore.getOrCreateSlot(expr).put(i, data);
     }
     
     static void replace(Expression expr, int i, Object oldData, Object data) {
-        Object[] userData = expr.getUserData(hbData);
-        if(userData == null) {
-            userData = new Object[names.size()];
-            expr.putUserData(hbData, userData);
-        }
-        if(userData[i] == oldData)
-            userData[i] = data;
+        FactStore.Slot slot = FactStore.getOrCreateSlot(expr);
+        if(slot.get(i) == oldData)
+            slot.put(i, data);
     }
     
     static void remove(Expression expr, int i) {
-        Object[] userData = expr.getUserData(hbData);
-        if(userData != null) {
-            userData[i] = null;
+        FactStore.Slot slot = FactStore.slot(expr);
+        if(slot != null && slot.get(i) != null) {
+            slot.put(i, null);
         }
     }
     
@@ -80,15 +73,16 @@ public class Annotators {
      * @return String describing the annotators
      */
     public static String facts(Expression expr) {
-        Object[] data = expr.getUserData(hbData);
-        if(data == null)
+        FactStore.Slot slot = FactStore.slot(expr);
+        if(slot == null)
             return "{}";
         StringBuilder sb = new StringBuilder("{\n");
         for(int i=0; i<names.size(); i++) {
-            if(data[i] == null)
+            Object data = slot.get(i);
+            if(data == null)
                 continue;
             sb.append("  ").append(i+1).append(".").append(names.get(i))
-                .append(" = ").append(data[i]).append("\n");
+                .append(" = ").append(data).append("\n");
         }
         sb.append("}");
         return sb.toString();
@@ -15,23 +15,31 @@
  */
 package one.util.huntbugs.flow;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
 import com.strobel.decompiler.ast.AstCode;
+import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
 /**
+ * Usages are computed lazily for the whole method on the first query. Every
+ * expression stores either the slot of the single usage or the array of usage
+ * slots.
+ * 
  * @author shustkost
  *
  */
-public class BackLinkAnnotator extends Annotator<Set<Expression>> {
+public class BackLinkAnnotator extends Annotator<Object> {
 
     public BackLinkAnnotator() {
-        super("backlink2", Collections.emptySet());
+        super("backlink2", null);
     }
     
     void annotate(Node node) {
@@ -46,13 +54,10 @@ public class BackLinkAnnotator extends Annotator<Set<Expression>> {
         if(expr.getCode() == AstCode.TernaryOp) {
             Expression left = expr.getArguments().get(1);
             Expression right = expr.getArguments().get(1);
-            Set<Expression> links = get(expr);
-            if(!(links instanceof HashSet))
-                links = new HashSet<>(links);
-            links.addAll(get(left));
-            links.addAll(get(right));
-            links.remove(expr);
-            put(expr, links);
+            Object links = get(expr);
+            links = union(links, get(left));
+            links = union(links, get(right));
+            put(expr, without(links, FactStore.slot(expr)));
         }
     }
 
@@ -76,21 +81,93 @@ public class BackLinkAnnotator extends Annotator<Set<Expression>> {
     }
 
     private void doLink(Expression target, Expression source) {
-        Set<Expression> set = get(source);
-        if (set.isEmpty()) {
-            put(source, Collections.singleton(target));
-        } else {
-            if (!(set instanceof HashSet)) {
-                set = new HashSet<>(set);
-                put(source, set);
+        Object links = get(source);
+        Object newLinks = add(links, FactStore.getOrCreateSlot(target));
+        if (newLinks != links) {
+            put(source, newLinks);
+        }
+    }
+
+    // Usages are stored as slots, so the usage slot is known without the lookup
+    private static Object add(Object links, FactStore.Slot target) {
+        if (links == null)
+            return target;
+        if (links == target)
+            return links;
+        if (links instanceof FactStore.Slot)
+            return new FactStore.Slot[] { (FactStore.Slot) links, target };
+        FactStore.Slot[] array = (FactStore.Slot[]) links;
+        for (FactStore.Slot slot : array) {
+            if (slot == target)
+                return links;
+        }
+        FactStore.Slot[] newArray = Arrays.copyOf(array, array.length + 1);
+        newArray[array.length] = target;
+        return newArray;
+    }
+
+    private static Object union(Object links, Object other) {
+        if (other instanceof FactStore.Slot)
+            return add(links, (FactStore.Slot) other);
+        if (other != null) {
+            for (FactStore.Slot slot : (FactStore.Slot[]) other) {
+                links = add(links, slot);
             }
-            set.add(target);
         }
+        return links;
+    }
+
+    private static Object without(Object links, FactStore.Slot target) {
+        if (links == target)
+            return null;
+        if (!(links instanceof FactStore.Slot[]))
+            return links;
+        FactStore.Slot[] array = (FactStore.Slot[]) links;
+        int idx = Arrays.asList(array).indexOf(target);
+        if (idx < 0)
+            return links;
+        if (array.length == 2)
+            return array[1 - idx];
+        FactStore.Slot[] newArray = new FactStore.Slot[array.length - 1];
+        System.arraycopy(array, 0, newArray, 0, idx);
+        System.arraycopy(array, idx + 1, newArray, idx, newArray.length - idx);
+        return newArray;
     }
 
     public Set<Expression> findUsages(Expression input) {
-        Set<Expression> set = get(input);
-        return set instanceof HashSet ? Collections.unmodifiableSet(set) : set;
+        Object links = findLinks(input);
+        if (links == null)
+            return Collections.emptySet();
+        if (links instanceof FactStore.Slot)
+            return Collections.singleton(((FactStore.Slot) links).expr);
+        return new UsageSet((FactStore.Slot[]) links);
+    }
+
+    /**
+     * @param input expression to find the usages of
+     * @return slots of the expressions which use the input
+     */
+    List<FactStore.Slot> findUsageSlots(Expression input) {
+        Object links = findLinks(input);
+        if (links == null)
+            return Collections.emptyList();
+        if (links instanceof FactStore.Slot)
+            return Collections.singletonList((FactStore.Slot) links);
+        return Arrays.asList((FactStore.Slot[]) links);
+    }
+
+    private Object findLinks(Expression input) {
+        FactStore.Slot slot = FactStore.slot(input);
+        if (slot == null)
+            return null;
+        // Synthetic expressions (like phi nodes) are numbered in the store of the method they belong to,
+        // so the links are built for the whole method body
+        if (markComputed(slot.store)) {
+            for (Block body : slot.store.bodies) {
+                annotate(body);
+            }
+        }
+        return get(slot);
     }
 
     public Stream<Expression> findTransitiveUsages(Expression expr, boolean includePhi) {
@@ -105,4 +182,22 @@ public class BackLinkAnnotator extends Annotator<Set<Expression>> {
                 return Stream.of(x);
             });
     }
+
+    private static class UsageSet extends AbstractSet<Expression> {
+        private final FactStore.Slot[] usages;
+
+        UsageSet(FactStore.Slot[] usages) {
+            this.usages = usages;
+        }
+
+        @Override
+        public Iterator<Expression> iterator() {
+            return Arrays.stream(usages).map(slot -> slot.expr).iterator();
+        }
+
+        @Override
+        public int size() {
+            return usages.length;
+        }
+    }
 }
@@ -17,6 +17,7 @@ package one.util.huntbugs.flow;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -66,6 +67,8 @@ public class CFG {
     private static final int BLOCKTYPE_EXIT = -2;
     private static final int BLOCKTYPE_FAIL = -3;
     private static final int BLOCKTYPE_IMPLICIT = -4;
+    // Number of loop head state changes after which widening is applied
+    private static final int WIDENING_DELAY = 2;
 
     static final TypeDefinition throwable = Types.lookupJdkType("java/lang/Throwable");
     static final TypeDefinition exception = Types.lookupJdkType("java/lang/Exception");
@@ -89,6 +92,7 @@ public class CFG {
     // Number of block till which CFG is forward-only
     final int forwardTill;
     final boolean hasUnreachable;
+    FactStore facts;
 
     private CFG(MethodDefinition md, BasicBlock closure, Block methodBody) {
         this.md = md;
@@ -155,6 +159,7 @@ public class CFG {
     private int computeForwardTill() {
         int forwardTill = blocks.size();
         for (BasicBlock bb : blocks) {
+            bb.targets().filter(t -> t.id >= 0 && t.id <= bb.id).forEach(t -> t.loopHead = true);
             int min = bb.targets().mapToInt(t -> t.id).filter(id -> id >= 0 && id < bb.id).min().orElse(forwardTill);
             if (min < forwardTill)
                 forwardTill = min;
@@ -567,6 +572,35 @@ public class CFG {
         return valid;
     }
 
+    /**
+     * Sparse (flow-insensitive) version of {@link #runDFA(Annotator, BiFunction, int)}: every block is evaluated
+     * in the entry state and then re-evaluated only when the fact of some expression it uses is changed. Uses are
+     * taken from {@link Inf#BACKLINK}. Conditional and exceptional state transfers are
+     * ignored.
+     * 
+     * @param annotator annotator to store the facts
+     * @param dfFactory creates the dataflow for the method or lambda CFG and the state captured by the lambda
+     *        (null for the method)
+     * @param maxIter maximal number of fact updates per expression
+     * @return false if some facts were not stabilized and reset to unknown
+     */
+    public <STATE, FACT> boolean runSparse(Annotator<FACT> annotator,
+            BiFunction<CFG, STATE, Dataflow<FACT, STATE>> dfFactory, int maxIter) {
+        return runSparse(annotator, dfFactory, null, maxIter);
+    }
+
+    private <STATE, FACT> boolean runSparse(Annotator<FACT> annotator,
+            BiFunction<CFG, STATE, Dataflow<FACT, STATE>> dfFactory, STATE closureState, int maxIter) {
+        Dataflow<FACT, STATE> df = dfFactory.apply(this, closureState);
+        boolean valid = new SparseRunner<>(annotator, df).run(maxIter);
+        // The state is flow-insensitive, so lambdas capture the entry state of the enclosing method
+        STATE state = df.makeEntryState();
+        for (CFG subCFG : lambdas.values()) {
+            valid &= subCFG.runSparse(annotator, dfFactory, state, maxIter);
+        }
+        return valid;
+    }
+
     public void forBodies(BiConsumer<MethodDefinition, Block> consumer) {
         consumer.accept(md, body);
         lambdas.values().forEach(cfg -> cfg.forBodies(consumer));
@@ -699,6 +733,7 @@ public class CFG {
     void initialize() {
         for (BasicBlock bb : blocks) {
             bb.state = null;
+            bb.updates = 0;
         }
         exit.state = null;
         fail.state = null;
@@ -736,7 +771,7 @@ public class CFG {
                 if (!valid) {
                     for (BasicBlock bb : subList) {
                         if (bb.changed) {
-                            annotator.put(bb.expr, df.makeUnknownFact());
+                            annotator.put(bb.slot, df.makeUnknownFact());
                             bb.state = null;
                         }
                     }
@@ -749,8 +784,8 @@ public class CFG {
                 }
             }
             for (List<BasicBlock> dupList : dupExpr) {
-                FACT res = dupList.stream().map(bb -> annotator.get(bb.expr)).reduce(null, df::mergeFacts);
-                dupList.forEach(bb -> annotator.put(bb.expr, res));
+                FACT res = dupList.stream().map(bb -> annotator.get(bb.slot)).reduce(null, df::mergeFacts);
+                dupList.forEach(bb -> annotator.put(bb.slot, res));
             }
             @SuppressWarnings("unchecked")
             STATE exitState = (STATE) exit.state;
@@ -767,17 +802,17 @@ public class CFG {
             for (BasicBlock bb : blocks) {
                 try {
                     if (!bb.reached) {
-                        annotator.put(bb.expr, df.makeUnknownFact());
+                        annotator.put(bb.slot, df.makeUnknownFact());
                         continue;
                     }
                     @SuppressWarnings("unchecked")
                     STATE state = (STATE) bb.state;
-                    FACT fact = df.makeFact(state, bb.expr);
-                    FACT oldFact = annotator.get(bb.expr);
+                    FACT fact = df.makeFact(state, bb.slot);
+                    FACT oldFact = annotator.get(bb.slot);
                     if (!df.sameFact(oldFact, fact)) {
                         FACT updatedFact = df.mergeFacts(oldFact, fact);
                         if (!df.sameFact(updatedFact, oldFact)) {
-                            annotator.put(bb.expr, updatedFact);
+                            annotator.put(bb.slot, updatedFact);
                             bb.changed = changed = true;
                         }
                     }
@@ -786,16 +821,16 @@ public class CFG {
                         continue;
                     }
                     if (bb.passTarget != null) {
-                        updateState(df.transferState(state, bb.expr), bb.passTarget);
+                        updateState(df.transferState(state, bb.slot), bb.passTarget);
                     }
                     if (bb.trueTarget != null || bb.falseTarget != null) {
-                        TrueFalse<STATE> tf = df.transferConditionalState(state, bb.expr);
+                        TrueFalse<STATE> tf = df.transferConditionalState(state, bb.slot);
                         updateState(tf.trueState, bb.trueTarget);
                         updateState(tf.falseState, bb.falseTarget);
                     }
                     if (bb.failTargets != null) {
-                        STATE newState = bb.expr.getCode() == AstCode.Ret ? df.transferState(state, bb.expr)
-                                : df.transferExceptionalState(state, bb.expr);
+                        STATE newState = bb.expr.getCode() == AstCode.Ret ? df.transferState(state, bb.slot)
+                                : df.transferExceptionalState(state, bb.slot);
                         for (BasicBlock target : bb.failTargets) {
                             updateState(newState, target);
                         }
@@ -816,10 +851,13 @@ public class CFG {
                 }
             } else if (newState != null && !df.sameState(oldState, newState)) {
                 STATE updatedState = df.mergeStates(oldState, newState);
-                target.state = updatedState;
                 if (!df.sameState(oldState, updatedState)) {
+                    if (target.loopHead && ++target.updates > WIDENING_DELAY) {
+                        updatedState = df.widenStates(oldState, updatedState);
+                    }
                     target.changed = changed = true;
                 }
+                target.state = updatedState;
             }
         }
 
@@ -840,6 +878,69 @@ public class CFG {
         }
     }
 
+    class SparseRunner<STATE, FACT> {
+        private final Annotator<FACT> annotator;
+        private final Dataflow<FACT, STATE> df;
+
+        SparseRunner(Annotator<FACT> annotator, Dataflow<FACT, STATE> df) {
+            this.df = df;
+            this.annotator = annotator;
+        }
+
+        boolean run(int maxIteration) {
+            if (blocks.isEmpty()) {
+                return true;
+            }
+            initialize();
+            STATE state = df.makeEntryState();
+            // Lambda blocks are numbered in the store of the enclosing method
+            FactStore store = blocks.get(0).slot.store;
+            // Duplicated expressions share the slot and get the same fact in the entry state,
+            // so only the first block is evaluated
+            BasicBlock[] slotBlocks = new BasicBlock[store.size()];
+            BitSet pending = new BitSet(blocks.size());
+            for (BasicBlock bb : blocks) {
+                if (!bb.reached) {
+                    annotator.put(bb.slot, df.makeUnknownFact());
+                } else if (slotBlocks[bb.slot.id] == null) {
+                    slotBlocks[bb.slot.id] = bb;
+                    pending.set(bb.id);
+                }
+            }
+            boolean valid = true;
+            // Lowest id first: block order follows the evaluation order
+            for (int id = pending.nextSetBit(0); id >= 0; id = pending.nextSetBit(0)) {
+                pending.clear(id);
+                BasicBlock bb = blocks.get(id);
+                try {
+                    FACT fact = df.makeFact(state, bb.slot);
+                    FACT oldFact = annotator.get(bb.slot);
+                    if (df.sameFact(oldFact, fact))
+                        continue;
+                    FACT updatedFact = df.mergeFacts(oldFact, fact);
+                    if (df.sameFact(updatedFact, oldFact))
+                        continue;
+                    if (++bb.updates > maxIteration) {
+                        updatedFact = df.makeUnknownFact();
+                        valid = false;
+                    }
+                    annotator.put(bb.slot, updatedFact);
+                } catch (Exception e) {
+                    throw new RuntimeException("Error running sparse DFA at block " + bb + "\n" + CFG.this + CFG.this.body, e);
+                }
+                for (FactStore.Slot slot : Inf.BACKLINK.findUsageSlots(bb.expr)) {
+                    if (slot.store != store)
+                        continue;
+                    BasicBlock target = slotBlocks[slot.id];
+                    if (target != null && target.updates <= maxIteration) {
+                        pending.set(target.id);
+                    }
+                }
+            }
+            return valid;
+        }
+    }
+
     public enum EdgeType {
         PASS, TRUE, FALSE, FAIL;
     }
@@ -849,6 +950,11 @@ public class CFG {
         boolean changed, reached;
         int id = -1;
         Expression expr;
+        FactStore.Slot slot;
+        // Target of the backward edge
+        boolean loopHead;
+        // Number of state changes during current DFA run (tracked for loop heads only)
+        int updates;
         BasicBlock passTarget;
         BasicBlock trueTarget;
         BasicBlock falseTarget;
@@ -23,6 +23,8 @@ import java.util.Set;
 import one.util.huntbugs.db.FieldStats;
 import one.util.huntbugs.db.MethodStats;
 import one.util.huntbugs.db.MethodStats.MethodData;
+import one.util.huntbugs.db.MethodSummaries;
+import one.util.huntbugs.db.MethodSummaries.Summary;
 import one.util.huntbugs.flow.SourceAnnotator.Frame;
 import one.util.huntbugs.util.Annotations;
 import one.util.huntbugs.util.Methods;
@@ -44,10 +46,12 @@ public class ClassFields {
     Map<MemberInfo, Expression> values = new HashMap<>();
     Set<FieldDefinition> initializedInCtor = new HashSet<>();
     MethodStats ms;
+    MethodSummaries summaries;
     Map<MemberInfo, Map<MemberInfo, Expression>> ctorFields = new HashMap<>();
     
-    public ClassFields(TypeDefinition td, FieldStats fieldStats, MethodStats methodStats) {
+    public ClassFields(TypeDefinition td, FieldStats fieldStats, MethodStats methodStats, MethodSummaries summaries) {
         this.ms = methodStats;
+        this.summaries = summaries;
         for (FieldDefinition fd : td.getDeclaredFields()) {
             fields.put(new MemberInfo(fd), fd);
             int flags = fieldStats.getFlags(fd);
@@ -65,7 +69,23 @@ public class ClassFields {
         MethodData stats = ms.getStats(mr);
         if(stats == null)
             return false;
-        return !stats.mayHaveSideEffect(exact);
+        if(!stats.mayHaveSideEffect(exact))
+            return true;
+        // Statically bound callees may be proven side effect free
+        Summary summary = summaries.getSummary(mr);
+        return summary != null && (exact || summary.isFinal()) && !summary.mayHaveSideEffect();
+    }
+
+    /**
+     * @param mr constructor called on a newly created object
+     * @return true if the constructor has no side effect besides initializing
+     *         the new object
+     */
+    public boolean isNewObjectSideEffectFree(MethodReference mr) {
+        if(isSideEffectFree(mr, true))
+            return true;
+        Summary summary = summaries.getSummary(mr);
+        return summary != null && !summary.mayHaveSideEffectOnNewObject();
     }
 
     public boolean isKnownFinal(MemberInfo field) {
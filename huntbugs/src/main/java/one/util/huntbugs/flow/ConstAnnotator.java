@@ -51,9 +51,14 @@ public class ConstAnnotator extends Annotator<Object> {
         super("value", null);
     }
     
-    boolean build(CFG cfg) {
+    boolean build(CFG cfg, boolean sparse, int maxIter) {
+        if (sparse) {
+            // Values are resolved via sources anyway, only the ones refined by conditions are lost
+            return cfg.<ContextValues, Object> runSparse(this, (subCFG, closure) -> new ConstDataflow(closure == null
+                    ? ContextValues.DEFAULT : closure), maxIter);
+        }
         return cfg.<ContextValues, Object> runDFA(this, (md, closureState) -> new ConstDataflow(closureState == null
-                ? ContextValues.DEFAULT : closureState), 7);
+                ? ContextValues.DEFAULT : closureState), maxIter);
     }
     
     /**
@@ -72,6 +77,11 @@ public class ConstAnnotator extends Annotator<Object> {
         Object value = get(input);
         return value == UNKNOWN_VALUE ? null : value;
     }
+
+    Object getValue(FactStore.Slot slot) {
+        Object value = get(slot);
+        return value == UNKNOWN_VALUE ? null : value;
+    }
     
     public boolean isConst(Expression input, Object constant) {
         return constant.equals(get(input));
@@ -154,6 +164,7 @@ public class ConstAnnotator extends Annotator<Object> {
     }
     
     class ConstDataflow implements Dataflow<Object, ContextValues> {
+        private final Interner<Object> facts = new Interner<>(Collections.singletonList(UNKNOWN_VALUE));
         ContextValues initState;
         
         ConstDataflow(ContextValues initState) {
@@ -164,7 +175,17 @@ public class ConstAnnotator extends Annotator<Object> {
             if(expr.getCode() == AstCode.LdC) {
                 return expr.getOperand() == null ? UNKNOWN_VALUE : expr.getOperand();
             }
-            Object val = get(expr);
+            return resolve(contextValues, expr, get(expr));
+        }
+
+        private Object resolve(ContextValues contextValues, FactStore.Slot slot) {
+            if(slot.expr.getCode() == AstCode.LdC) {
+                return slot.expr.getOperand() == null ? UNKNOWN_VALUE : slot.expr.getOperand();
+            }
+            return resolve(contextValues, slot.expr, get(slot));
+        }
+
+        private Object resolve(ContextValues contextValues, Expression expr, Object val) {
             if(val instanceof Exceptional) {
                 return UNKNOWN_VALUE;
             }
@@ -177,8 +198,8 @@ public class ConstAnnotator extends Annotator<Object> {
             return val;
         }
 
-        private Object resolveConditional(ContextValues contextValues, Expression expr) {
-            Object val = resolve(contextValues, expr);
+        private Object resolveConditional(ContextValues contextValues, FactStore.Slot slot) {
+            Object val = resolve(contextValues, slot);
             // Zero is excluded as 0.0 == -0.0
             if (val instanceof Double && ((double)val == 0.0 || Double.isNaN((double) val)))
                 return UNKNOWN_VALUE;
@@ -187,12 +208,12 @@ public class ConstAnnotator extends Annotator<Object> {
             return val;
         }
 
-        private Object fromSource(ContextValues ctx, Expression expr) {
-            Object value = ctx.resolve(expr);
+        private Object fromSource(ContextValues ctx, FactStore.Slot slot) {
+            Object value = ctx.resolve(slot.expr);
             if(value != null)
                 return value;
-            Expression src = ValuesFlow.getSource(expr);
-            if(src == expr)
+            Expression src = Inf.SOURCE.getSource(slot);
+            if(src == slot.expr)
                 return UNKNOWN_VALUE;
             value = resolve(ctx, src);
             if(value != null)
@@ -240,282 +261,283 @@ public class ConstAnnotator extends Annotator<Object> {
             }, (a, b) -> Objects.equals(a, b) ? a : null, Objects::isNull);
         }
 
-        private Object processNeg(Expression expr) {
-            switch (getType(expr)) {
+        private Object processNeg(FactStore.Slot slot) {
+            switch (getType(slot.expr)) {
             case Integer:
-                return processUnaryOp(expr, Integer.class, l -> -l);
+                return processUnaryOp(slot, Integer.class, l -> -l);
             case Long:
-                return processUnaryOp(expr, Long.class, l -> -l);
+                return processUnaryOp(slot, Long.class, l -> -l);
             case Double:
-                return processUnaryOp(expr, Double.class, l -> -l);
+                return processUnaryOp(slot, Double.class, l -> -l);
             case Float:
-                return processUnaryOp(expr, Float.class, l -> -l);
+                return processUnaryOp(slot, Float.class, l -> -l);
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processRem(Expression expr) {
-            switch (getType(expr)) {
+        private Object processRem(FactStore.Slot slot) {
+            switch (getType(slot.expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a % b);
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a % b);
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a % b);
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a % b);
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a % b);
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a % b);
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a % b);
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a % b);
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processDiv(Expression expr) {
-            switch (getType(expr)) {
+        private Object processDiv(FactStore.Slot slot) {
+            switch (getType(slot.expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a / b);
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a / b);
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a / b);
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a / b);
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a / b);
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a / b);
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a / b);
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a / b);
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processMul(Expression expr) {
-            switch (getType(expr)) {
+        private Object processMul(FactStore.Slot slot) {
+            switch (getType(slot.expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a * b);
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a * b);
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a * b);
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a * b);
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a * b);
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a * b);
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a * b);
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a * b);
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processSub(Expression expr) {
-            switch (getType(expr)) {
+        private Object processSub(FactStore.Slot slot) {
+            switch (getType(slot.expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a - b);
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a - b);
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a - b);
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a - b);
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a - b);
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a - b);
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a - b);
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a - b);
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processAdd(Expression expr) {
-            switch (getType(expr)) {
+        private Object processAdd(FactStore.Slot slot) {
+            switch (getType(slot.expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, Integer::sum);
+                return processBinaryOp(slot, Integer.class, Integer.class, Integer::sum);
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, Long::sum);
+                return processBinaryOp(slot, Long.class, Long.class, Long::sum);
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, Double::sum);
+                return processBinaryOp(slot, Double.class, Double.class, Double::sum);
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, Float::sum);
+                return processBinaryOp(slot, Float.class, Float.class, Float::sum);
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processCmpGe(Expression expr) {
-            switch (getType(expr.getArguments().get(0))) {
+        private Object processCmpGe(FactStore.Slot slot) {
+            switch (getType(slot.arg(0).expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a.intValue() >= b.intValue());
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a.intValue() >= b.intValue());
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a.longValue() >= b.longValue());
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a.longValue() >= b.longValue());
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a.doubleValue() >= b
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a.doubleValue() >= b
                         .doubleValue());
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a.floatValue() >= b.floatValue());
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a.floatValue() >= b.floatValue());
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processCmpGt(Expression expr) {
-            switch (getType(expr.getArguments().get(0))) {
+        private Object processCmpGt(FactStore.Slot slot) {
+            switch (getType(slot.arg(0).expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a.intValue() > b.intValue());
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a.intValue() > b.intValue());
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a.longValue() > b.longValue());
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a.longValue() > b.longValue());
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a.doubleValue() > b.doubleValue());
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a.doubleValue() > b.doubleValue());
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a.floatValue() > b.floatValue());
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a.floatValue() > b.floatValue());
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processCmpLe(Expression expr) {
-            switch (getType(expr.getArguments().get(0))) {
+        private Object processCmpLe(FactStore.Slot slot) {
+            switch (getType(slot.arg(0).expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a.intValue() <= b.intValue());
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a.intValue() <= b.intValue());
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a.longValue() <= b.longValue());
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a.longValue() <= b.longValue());
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a.doubleValue() <= b
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a.doubleValue() <= b
                         .doubleValue());
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a.floatValue() <= b.floatValue());
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a.floatValue() <= b.floatValue());
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processCmpLt(Expression expr) {
-            switch (getType(expr.getArguments().get(0))) {
+        private Object processCmpLt(FactStore.Slot slot) {
+            switch (getType(slot.arg(0).expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a.intValue() < b.intValue());
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a.intValue() < b.intValue());
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a.longValue() < b.longValue());
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a.longValue() < b.longValue());
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a.doubleValue() < b.doubleValue());
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a.doubleValue() < b.doubleValue());
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a.floatValue() < b.floatValue());
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a.floatValue() < b.floatValue());
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processCmpNe(Expression expr) {
-            switch (getType(expr.getArguments().get(0))) {
+        private Object processCmpNe(FactStore.Slot slot) {
+            switch (getType(slot.arg(0).expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a.intValue() != b.intValue());
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a.intValue() != b.intValue());
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a.longValue() != b.longValue());
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a.longValue() != b.longValue());
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a.doubleValue() != b
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a.doubleValue() != b
                         .doubleValue());
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a.floatValue() != b.floatValue());
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a.floatValue() != b.floatValue());
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processCmpEq(Expression expr) {
-            switch (getType(expr.getArguments().get(0))) {
+        private Object processCmpEq(FactStore.Slot slot) {
+            switch (getType(slot.arg(0).expr)) {
             case Byte:
             case Short:
             case Character:
             case Integer:
-                return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a.intValue() == b.intValue());
+                return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a.intValue() == b.intValue());
             case Long:
-                return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a.longValue() == b.longValue());
+                return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a.longValue() == b.longValue());
             case Double:
-                return processBinaryOp(expr, Double.class, Double.class, (a, b) -> a.doubleValue() == b
+                return processBinaryOp(slot, Double.class, Double.class, (a, b) -> a.doubleValue() == b
                         .doubleValue());
             case Float:
-                return processBinaryOp(expr, Float.class, Float.class, (a, b) -> a.floatValue() == b.floatValue());
+                return processBinaryOp(slot, Float.class, Float.class, (a, b) -> a.floatValue() == b.floatValue());
             default:
             }
             return UNKNOWN_VALUE;
         }
 
-        private Object processKnownMethods(Expression expr, MethodReference mr) {
+        private Object processKnownMethods(FactStore.Slot slot, MethodReference mr) {
+            Expression expr = slot.expr;
             if (Methods.isEqualsMethod(mr)) {
-                return processBinaryOp(expr, Object.class, Object.class, Object::equals);
+                return processBinaryOp(slot, Object.class, Object.class, Object::equals);
             } else if (mr.getDeclaringType().getInternalName().equals("java/lang/String")) {
                 if (mr.getName().equals("length"))
-                    return processUnaryOp(expr, String.class, String::length);
+                    return processUnaryOp(slot, String.class, String::length);
                 else if (mr.getName().equals("toString") || mr.getName().equals("intern"))
-                    return processUnaryOp(expr, String.class, Function.identity());
+                    return processUnaryOp(slot, String.class, Function.identity());
                 else if (mr.getName().equals("trim"))
-                    return processUnaryOp(expr, String.class, String::trim);
+                    return processUnaryOp(slot, String.class, String::trim);
                 else if (mr.getName().equals("substring"))
-                    return processBinaryOp(expr, String.class, Integer.class, String::substring);
+                    return processBinaryOp(slot, String.class, Integer.class, String::substring);
                 else if (mr.getName().equals("valueOf") && mr.getParameters().size() == 1) {
                     if(mr.getErasedSignature().startsWith("(Z)")) {
                         // Handle specially to process possible Integer -> Boolean conversion
-                        return processUnaryOp(expr, Boolean.class, String::valueOf);
+                        return processUnaryOp(slot, Boolean.class, String::valueOf);
                     }
-                    return processUnaryOp(expr, Object.class, String::valueOf);
+                    return processUnaryOp(slot, Object.class, String::valueOf);
                 }
             } else if (mr.getDeclaringType().getInternalName().equals("java/lang/Math")) {
                 if (mr.getName().equals("abs")) {
-                    switch (getType(expr)) {
+                    switch (getType(slot.expr)) {
                     case Integer:
-                        return processUnaryOp(expr, Integer.class, Math::abs);
+                        return processUnaryOp(slot, Integer.class, Math::abs);
                     case Long:
-                        return processUnaryOp(expr, Long.class, Math::abs);
+                        return processUnaryOp(slot, Long.class, Math::abs);
                     case Double:
-                        return processUnaryOp(expr, Double.class, Math::abs);
+                        return processUnaryOp(slot, Double.class, Math::abs);
                     case Float:
-                        return processUnaryOp(expr, Float.class, Math::abs);
+                        return processUnaryOp(slot, Float.class, Math::abs);
                     default:
                     }
                 }
             } else if (Nodes.isBoxing(expr) || Nodes.isUnboxing(expr)) {
-                return processUnaryOp(expr, Number.class, Function.identity());
+                return processUnaryOp(slot, Number.class, Function.identity());
             } else if (mr.getName().equals("toString") && mr.getDeclaringType().getInternalName().startsWith("java/lang/")
                 && expr.getArguments().size() == 1) {
                 if(mr.getDeclaringType().getInternalName().equals("java/lang/Boolean")) {
-                    return processUnaryOp(expr, Boolean.class, Object::toString);
+                    return processUnaryOp(slot, Boolean.class, Object::toString);
                 }
-                return processUnaryOp(expr, Object.class, Object::toString);
+                return processUnaryOp(slot, Object.class, Object::toString);
             } else if (expr.getCode() == AstCode.InvokeStatic && expr.getArguments().size() == 1) {
                 if(mr.getName().equals("parseInt") && mr.getDeclaringType().getInternalName().equals("java/lang/Integer")) {
-                    return processUnaryOp(expr, String.class, Integer::parseInt);
+                    return processUnaryOp(slot, String.class, Integer::parseInt);
                 } else if(mr.getName().equals("parseLong") && mr.getDeclaringType().getInternalName().equals("java/lang/Long")) {
-                    return processUnaryOp(expr, String.class, Long::parseLong);
+                    return processUnaryOp(slot, String.class, Long::parseLong);
                 } else if(mr.getName().equals("parseDouble") && mr.getDeclaringType().getInternalName().equals("java/lang/Double")) {
-                    return processUnaryOp(expr, String.class, Double::parseDouble);
+                    return processUnaryOp(slot, String.class, Double::parseDouble);
                 } else if(mr.getName().equals("parseFloat") && mr.getDeclaringType().getInternalName().equals("java/lang/Float")) {
-                    return processUnaryOp(expr, String.class, Float::parseFloat);
+                    return processUnaryOp(slot, String.class, Float::parseFloat);
                 }
             }
             return UNKNOWN_VALUE;
         }
 
-        private <A> Object processUnaryOp(Expression expr, Class<A> type, Function<A, ?> op) {
-            if (expr.getArguments().size() != 1)
+        private <A> Object processUnaryOp(FactStore.Slot slot, Class<A> type, Function<A, ?> op) {
+            if (slot.expr.getArguments().size() != 1)
                 return UNKNOWN_VALUE;
-            Object arg = get(expr.getArguments().get(0));
+            Object arg = get(slot.arg(0));
             if (arg == UNKNOWN_VALUE) {
                 return UNKNOWN_VALUE;
             }
@@ -532,13 +554,13 @@ public class ConstAnnotator extends Annotator<Object> {
             }
         }
 
-        private <A, B> Object processBinaryOp(Expression expr, Class<A> leftType, Class<B> rightType, BiFunction<A, B, ?> op) {
-            if (expr.getArguments().size() != 2)
+        private <A, B> Object processBinaryOp(FactStore.Slot slot, Class<A> leftType, Class<B> rightType, BiFunction<A, B, ?> op) {
+            if (slot.expr.getArguments().size() != 2)
                 return UNKNOWN_VALUE;
-            Object left = get(expr.getArguments().get(0));
+            Object left = get(slot.arg(0));
             if (left == UNKNOWN_VALUE || !leftType.isInstance(left))
                 return UNKNOWN_VALUE;
-            Object right = get(expr.getArguments().get(1));
+            Object right = get(slot.arg(1));
             if (right == UNKNOWN_VALUE || !rightType.isInstance(right))
                 return UNKNOWN_VALUE;
             try {
@@ -554,22 +576,23 @@ public class ConstAnnotator extends Annotator<Object> {
         }
 
         @Override
-        public ContextValues transferState(ContextValues src, Expression expr) {
-            return src.transfer(expr);
+        public ContextValues transferState(ContextValues src, FactStore.Slot slot) {
+            return src.transfer(slot.expr);
         }
 
         @Override
-        public ContextValues transferExceptionalState(ContextValues src, Expression expr) {
-            return src.transfer(expr);
+        public ContextValues transferExceptionalState(ContextValues src, FactStore.Slot slot) {
+            return src.transfer(slot.expr);
         }
 
         @Override
-        public TrueFalse<ContextValues> transferConditionalState(ContextValues src, Expression expr) {
+        public TrueFalse<ContextValues> transferConditionalState(ContextValues src, FactStore.Slot slot) {
             boolean invert = false;
-            while(expr.getCode() == AstCode.LogicalNot) {
+            while(slot.expr.getCode() == AstCode.LogicalNot) {
                 invert = !invert;
-                expr = expr.getArguments().get(expr.getArguments().size()-1);
+                slot = slot.arg(slot.expr.getArguments().size()-1);
             }
+            Expression expr = slot.expr;
             Expression arg = null;
             Object cst = null;
             if (expr.getCode() == AstCode.CmpEq || expr.getCode() == AstCode.CmpNe
@@ -578,11 +601,11 @@ public class ConstAnnotator extends Annotator<Object> {
                 Expression right = expr.getArguments().get(1);
                 if(expr.getCode() == AstCode.CmpNe)
                     invert = !invert;
-                cst = resolveConditional(src, right);
+                cst = resolveConditional(src, slot.arg(1));
                 if(cst != null && cst != UNKNOWN_VALUE) {
                     arg = left;  
                 } else {
-                    cst = resolveConditional(src, left);
+                    cst = resolveConditional(src, slot.arg(0));
                     if(cst != null && cst != UNKNOWN_VALUE) {
                         arg = right;
                     }
@@ -607,16 +630,21 @@ public class ConstAnnotator extends Annotator<Object> {
         }
 
         @Override
-        public Object makeFact(ContextValues ctx, Expression expr) {
+        public Object makeFact(ContextValues ctx, FactStore.Slot slot) {
+            return facts.intern(computeFact(ctx, slot));
+        }
+
+        private Object computeFact(ContextValues ctx, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             switch(expr.getCode()) {
             case LogicalAnd:
-                return processBinaryOp(expr, Boolean.class, Boolean.class, Boolean::logicalAnd);
+                return processBinaryOp(slot, Boolean.class, Boolean.class, Boolean::logicalAnd);
             case LogicalOr:
-                return processBinaryOp(expr, Boolean.class, Boolean.class, Boolean::logicalOr);
+                return processBinaryOp(slot, Boolean.class, Boolean.class, Boolean::logicalOr);
             case TernaryOp: {
-                Object cond = get(expr.getArguments().get(0));
-                Object left = get(expr.getArguments().get(1));
-                Object right = get(expr.getArguments().get(2));
+                Object cond = get(slot.arg(0));
+                Object left = get(slot.arg(1));
+                Object right = get(slot.arg(2));
                 if(Integer.valueOf(1).equals(cond) || Boolean.TRUE.equals(cond)) {
                     return left; 
                 }
@@ -626,7 +654,7 @@ public class ConstAnnotator extends Annotator<Object> {
                 return mergeFacts(left, right);
             }
             case Store:
-                return resolve(ctx, expr.getArguments().get(0));
+                return resolve(ctx, slot.arg(0));
             case LdC:
                 return expr.getOperand();
             case ArrayLength: {
@@ -634,33 +662,33 @@ public class ConstAnnotator extends Annotator<Object> {
                 return len == null ? UNKNOWN_VALUE : len;
             }
             case CmpEq:
-                return processCmpEq(expr);
+                return processCmpEq(slot);
             case CmpNe:
-                return processCmpNe(expr);
+                return processCmpNe(slot);
             case CmpLt:
-                return processCmpLt(expr);
+                return processCmpLt(slot);
             case CmpLe:
-                return processCmpLe(expr);
+                return processCmpLe(slot);
             case CmpGt:
-                return processCmpGt(expr);
+                return processCmpGt(slot);
             case CmpGe:
-                return processCmpGe(expr);
+                return processCmpGe(slot);
             case Add:
-                return processAdd(expr);
+                return processAdd(slot);
             case Sub:
-                return processSub(expr);
+                return processSub(slot);
             case Mul:
-                return processMul(expr);
+                return processMul(slot);
             case Div:
-                return processDiv(expr);
+                return processDiv(slot);
             case Rem:
-                return processRem(expr);
+                return processRem(slot);
             case Xor: {
                 switch (getType(expr)) {
                 case Integer:
-                    return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a ^ b);
+                    return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a ^ b);
                 case Long:
-                    return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a ^ b);
+                    return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a ^ b);
                 default:
                 }
                 return UNKNOWN_VALUE;
@@ -668,9 +696,9 @@ public class ConstAnnotator extends Annotator<Object> {
             case Or: {
                 switch (getType(expr)) {
                 case Integer:
-                    return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a | b);
+                    return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a | b);
                 case Long:
-                    return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a | b);
+                    return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a | b);
                 default:
                 }
                 return UNKNOWN_VALUE;
@@ -678,9 +706,9 @@ public class ConstAnnotator extends Annotator<Object> {
             case And: {
                 switch (getType(expr)) {
                 case Integer:
-                    return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a & b);
+                    return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a & b);
                 case Long:
-                    return processBinaryOp(expr, Long.class, Long.class, (a, b) -> a & b);
+                    return processBinaryOp(slot, Long.class, Long.class, (a, b) -> a & b);
                 default:
                 }
                 return UNKNOWN_VALUE;
@@ -688,9 +716,9 @@ public class ConstAnnotator extends Annotator<Object> {
             case Shl: {
                 switch (getType(expr)) {
                 case Integer:
-                    return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a << b);
+                    return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a << b);
                 case Long:
-                    return processBinaryOp(expr, Long.class, Integer.class, (a, b) -> a << b);
+                    return processBinaryOp(slot, Long.class, Integer.class, (a, b) -> a << b);
                 default:
                 }
                 return UNKNOWN_VALUE;
@@ -698,9 +726,9 @@ public class ConstAnnotator extends Annotator<Object> {
             case Shr: {
                 switch (getType(expr)) {
                 case Integer:
-                    return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a >> b);
+                    return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a >> b);
                 case Long:
-                    return processBinaryOp(expr, Long.class, Integer.class, (a, b) -> a >> b);
+                    return processBinaryOp(slot, Long.class, Integer.class, (a, b) -> a >> b);
                 default:
                 }
                 return UNKNOWN_VALUE;
@@ -708,57 +736,57 @@ public class ConstAnnotator extends Annotator<Object> {
             case UShr: {
                 switch (getType(expr)) {
                 case Integer:
-                    return processBinaryOp(expr, Integer.class, Integer.class, (a, b) -> a >>> b);
+                    return processBinaryOp(slot, Integer.class, Integer.class, (a, b) -> a >>> b);
                 case Long:
-                    return processBinaryOp(expr, Long.class, Integer.class, (a, b) -> a >>> b);
+                    return processBinaryOp(slot, Long.class, Integer.class, (a, b) -> a >>> b);
                 default:
                 }
                 return UNKNOWN_VALUE;
             }
             case I2L:
-                return processUnaryOp(expr, Integer.class, i -> (long) i);
+                return processUnaryOp(slot, Integer.class, i -> (long) i);
             case I2B:
-                return processUnaryOp(expr, Integer.class, i -> (int) (byte) (int) i);
+                return processUnaryOp(slot, Integer.class, i -> (int) (byte) (int) i);
             case I2C:
-                return processUnaryOp(expr, Integer.class, i -> (int) (char) (int) i);
+                return processUnaryOp(slot, Integer.class, i -> (int) (char) (int) i);
             case I2S:
-                return processUnaryOp(expr, Integer.class, i -> (int) (short) (int) i);
+                return processUnaryOp(slot, Integer.class, i -> (int) (short) (int) i);
             case I2D:
-                return processUnaryOp(expr, Integer.class, i -> (double) i);
+                return processUnaryOp(slot, Integer.class, i -> (double) i);
             case I2F:
-                return processUnaryOp(expr, Integer.class, i -> (float) i);
+                return processUnaryOp(slot, Integer.class, i -> (float) i);
             case L2I:
-                return processUnaryOp(expr, Long.class, l -> (int) (long) l);
+                return processUnaryOp(slot, Long.class, l -> (int) (long) l);
             case L2D:
-                return processUnaryOp(expr, Long.class, l -> (double) l);
+                return processUnaryOp(slot, Long.class, l -> (double) l);
             case L2F:
-                return processUnaryOp(expr, Long.class, l -> (float) l);
+                return processUnaryOp(slot, Long.class, l -> (float) l);
             case F2L:
-                return processUnaryOp(expr, Float.class, l -> (long) (float) l);
+                return processUnaryOp(slot, Float.class, l -> (long) (float) l);
             case F2I:
-                return processUnaryOp(expr, Float.class, l -> (int) (float) l);
+                return processUnaryOp(slot, Float.class, l -> (int) (float) l);
             case F2D:
-                return processUnaryOp(expr, Float.class, l -> (double) l);
+                return processUnaryOp(slot, Float.class, l -> (double) l);
             case D2F:
-                return processUnaryOp(expr, Double.class, l -> (float) (double) l);
+                return processUnaryOp(slot, Double.class, l -> (float) (double) l);
             case D2I:
-                return processUnaryOp(expr, Double.class, l -> (int) (double) l);
+                return processUnaryOp(slot, Double.class, l -> (int) (double) l);
             case D2L:
-                return processUnaryOp(expr, Double.class, l -> (long) (double) l);
+                return processUnaryOp(slot, Double.class, l -> (long) (double) l);
             case Neg:
-                return processNeg(expr);
+                return processNeg(slot);
             case Load:
             case GetField:
-                return fromSource(ctx, expr);
+                return fromSource(ctx, slot);
             case Inc: {
-                Expression src = ValuesFlow.getSource(expr);
+                Expression src = Inf.SOURCE.getSource(slot);
                 if(src.getCode() == SourceAnnotator.UPDATE_TYPE) {
                     src = src.getArguments().get(0);
                     Object val = get(src);
                     if (val instanceof Integer)
-                        return processUnaryOp(expr, Integer.class, inc -> ((int) val) + inc);
+                        return processUnaryOp(slot, Integer.class, inc -> ((int) val) + inc);
                     else if (val instanceof Long)
-                        return processUnaryOp(expr, Long.class, inc -> ((long) val) + inc);
+                        return processUnaryOp(slot, Long.class, inc -> ((long) val) + inc);
                 }
                 return UNKNOWN_VALUE;
             }
@@ -768,7 +796,7 @@ public class ConstAnnotator extends Annotator<Object> {
             case InvokeStatic:
             case InvokeVirtual: {
                 MethodReference mr = (MethodReference) expr.getOperand();
-                return processKnownMethods(expr, mr);
+                return processKnownMethods(slot, mr);
             }
             case GetStatic: {
                 FieldReference fr = ((FieldReference) expr.getOperand());
@@ -776,7 +804,7 @@ public class ConstAnnotator extends Annotator<Object> {
                 if (fd != null && fd.isEnumConstant()) {
                     return new EnumConstant(fd.getDeclaringType().getInternalName(), fd.getName());
                 }
-                return fromSource(ctx, expr);
+                return fromSource(ctx, slot);
             }
             default:
                 return UNKNOWN_VALUE;
@@ -796,7 +824,8 @@ public class ConstAnnotator extends Annotator<Object> {
 
         @Override
         public boolean sameFact(Object f1, Object f2) {
-            return Objects.equals(f1, f2);
+            // facts are interned
+            return f1 == f2;
         }
 
         @Override
@@ -15,8 +15,6 @@
  */
 package one.util.huntbugs.flow;
 
-import com.strobel.decompiler.ast.Expression;
-
 /**
  * @author lan
  *
@@ -24,17 +22,39 @@ import com.strobel.decompiler.ast.Expression;
 interface Dataflow<FACT, STATE> {
     public STATE makeEntryState();
 
-    public STATE transferState(STATE src, Expression expr);
+    public STATE transferState(STATE src, FactStore.Slot slot);
 
-    public STATE transferExceptionalState(STATE src, Expression expr);
+    public STATE transferExceptionalState(STATE src, FactStore.Slot slot);
     
-    public TrueFalse<STATE> transferConditionalState(STATE src, Expression expr);
+    public TrueFalse<STATE> transferConditionalState(STATE src, FactStore.Slot slot);
 
     public STATE mergeStates(STATE s1, STATE s2);
     
     public boolean sameState(STATE s1, STATE s2);
+
+    /**
+     * Widening applied at loop heads when the state keeps changing after
+     * several iterations. The result must be not less general than
+     * mergedState and repeated widening must stabilize after a small number of
+     * steps. The default implementation returns mergedState which is
+     * sufficient for lattices of small height.
+     * 
+     * @param oldState previous state of the loop head
+     * @param mergedState result of merging the previous state with the
+     *        incoming one
+     * @return widened state
+     */
+    public default STATE widenStates(STATE oldState, STATE mergedState) {
+        return mergedState;
+    }
     
-    public FACT makeFact(STATE state, Expression expr);
+    /**
+     * @param state state before the expression
+     * @param slot slot of the expression: argument facts should be read via
+     *        {@link FactStore.Slot#arg(int)} like in the transfer methods
+     * @return the expression fact
+     */
+    public FACT makeFact(STATE state, FactStore.Slot slot);
     
     public FACT makeUnknownFact();
     
@@ -43,9 +43,9 @@ public class ETypeAnnotator extends Annotator<EType> {
         super("etype", null);
     }
 
-    boolean build(CFG cfg) {
+    boolean build(CFG cfg, int maxIter) {
         return cfg.<ContextTypes, EType> runDFA(this, (md, closure) -> new ETypeDataflow(closure == null
-                ? ContextTypes.DEFAULT : closure), 7);
+                ? ContextTypes.DEFAULT : closure), maxIter);
     }
 
     public EType resolve(Expression expr) {
@@ -76,6 +76,17 @@ public class ETypeAnnotator extends Annotator<EType> {
             return new ContextTypes(newTypes);
         }
 
+        ContextTypes widen(ContextTypes merged) {
+            if (merged.values == null || values == null)
+                return merged;
+            // Or-types may grow with every iteration: forget the variables which types are still changing
+            Map<Variable, EType> newTypes = new HashMap<>(merged.values);
+            newTypes.entrySet().removeIf(e -> !e.getValue().equals(values.get(e.getKey())));
+            if (newTypes.size() == merged.values.size())
+                return merged;
+            return newTypes.isEmpty() ? DEFAULT : new ContextTypes(newTypes);
+        }
+
         ContextTypes and(Variable var, EType value) {
             if (values == null) {
                 return new ContextTypes(Collections.singletonMap(var, value));
@@ -114,9 +125,9 @@ public class ETypeAnnotator extends Annotator<EType> {
             return this;
         }
 
-        ContextTypes transfer(Expression expr) {
-            if(expr.getCode() == AstCode.Store) {
-                return add((Variable) expr.getOperand(), Inf.ETYPE.get(expr.getArguments().get(0)));
+        ContextTypes transfer(FactStore.Slot slot) {
+            if(slot.expr.getCode() == AstCode.Store) {
+                return add((Variable) slot.expr.getOperand(), Inf.ETYPE.get(slot.arg(0)));
             }
             return this;
         }
@@ -145,6 +156,7 @@ public class ETypeAnnotator extends Annotator<EType> {
     }
 
     class ETypeDataflow implements Dataflow<EType, ContextTypes> {
+        private final Interner<EType> facts = new Interner<>(Collections.singletonList(EType.UNKNOWN));
         private final ContextTypes initial;
 
         ETypeDataflow(ContextTypes initial) {
@@ -157,7 +169,8 @@ public class ETypeAnnotator extends Annotator<EType> {
         }
 
         @Override
-        public ContextTypes transferState(ContextTypes src, Expression expr) {
+        public ContextTypes transferState(ContextTypes src, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             if (expr.getCode() == AstCode.CheckCast) {
                 Expression arg = expr.getArguments().get(0);
                 if (arg.getCode() == AstCode.Load) {
@@ -166,11 +179,12 @@ public class ETypeAnnotator extends Annotator<EType> {
                     return src.and(var, type);
                 }
             }
-            return src.transfer(expr);
+            return src.transfer(slot);
         }
 
         @Override
-        public ContextTypes transferExceptionalState(ContextTypes src, Expression expr) {
+        public ContextTypes transferExceptionalState(ContextTypes src, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             if (expr.getCode() == AstCode.CheckCast) {
                 Expression arg = expr.getArguments().get(0);
                 if (arg.getCode() == AstCode.Load) {
@@ -183,12 +197,13 @@ public class ETypeAnnotator extends Annotator<EType> {
         }
 
         @Override
-        public TrueFalse<ContextTypes> transferConditionalState(ContextTypes src, Expression expr) {
+        public TrueFalse<ContextTypes> transferConditionalState(ContextTypes src, FactStore.Slot slot) {
             boolean invert = false;
-            while (expr.getCode() == AstCode.LogicalNot) {
+            while (slot.expr.getCode() == AstCode.LogicalNot) {
                 invert = !invert;
-                expr = expr.getArguments().get(expr.getArguments().size() - 1);
+                slot = slot.arg(slot.expr.getArguments().size() - 1);
             }
+            Expression expr = slot.expr;
             Variable var = null;
             EType etype = null;
             if (expr.getCode() == AstCode.InstanceOf) {
@@ -204,12 +219,12 @@ public class ETypeAnnotator extends Annotator<EType> {
                     invert = !invert;
                 Expression left = expr.getArguments().get(0);
                 Expression right = expr.getArguments().get(1);
-                Object clazz = Inf.CONST.getValue(right);
+                Object clazz = Inf.CONST.getValue(slot.arg(1));
                 Expression arg = null;
                 if(clazz instanceof TypeReference) {
                     arg = left;
                 } else {
-                    clazz = Inf.CONST.getValue(left);
+                    clazz = Inf.CONST.getValue(slot.arg(0));
                     if(clazz instanceof TypeReference) {
                         arg = right;
                     }
@@ -224,7 +239,7 @@ public class ETypeAnnotator extends Annotator<EType> {
             } else if (expr.getCode() == AstCode.InvokeVirtual) {
                 MethodReference mr = (MethodReference) expr.getOperand();
                 if(mr.getName().equals("isInstance") && Types.is(mr.getDeclaringType(), Class.class)) {
-                    Object clazz = Inf.CONST.getValue(expr.getArguments().get(0));
+                    Object clazz = Inf.CONST.getValue(slot.arg(0));
                     Expression target = expr.getArguments().get(1);
                     if(clazz instanceof TypeReference && target.getCode() == AstCode.Load) {
                         var = (Variable) target.getOperand();
@@ -243,18 +258,28 @@ public class ETypeAnnotator extends Annotator<EType> {
             return s1.merge(s2);
         }
 
+        @Override
+        public ContextTypes widenStates(ContextTypes oldState, ContextTypes mergedState) {
+            return oldState.widen(mergedState);
+        }
+
         @Override
         public boolean sameState(ContextTypes s1, ContextTypes s2) {
             return s1.equals(s2);
         }
 
         @Override
-        public EType makeFact(ContextTypes state, Expression expr) {
+        public EType makeFact(ContextTypes state, FactStore.Slot slot) {
+            return facts.intern(computeFact(state, slot));
+        }
+
+        private EType computeFact(ContextTypes state, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             switch (expr.getCode()) {
             case TernaryOp: {
-                Object cond = Inf.CONST.get(expr.getArguments().get(0));
-                EType left = get(expr.getArguments().get(1));
-                EType right = get(expr.getArguments().get(2));
+                Object cond = Inf.CONST.get(slot.arg(0));
+                EType left = get(slot.arg(1));
+                EType right = get(slot.arg(2));
                 if (Integer.valueOf(1).equals(cond) || Boolean.TRUE.equals(cond)) {
                     return left;
                 }
@@ -268,13 +293,13 @@ public class ETypeAnnotator extends Annotator<EType> {
                 TypeReference varType = v.getType();
                 if(v.getOriginalParameter() != null)
                     varType = v.getOriginalParameter().getParameterType();
-                EType etype = EType.and(state.resolve(expr), EType.and(fromSource(state, expr), EType.subType(
+                EType etype = EType.and(state.resolve(expr), EType.and(fromSource(state, slot), EType.subType(
                     MetadataHelper.erase(varType))));
                 return etype == null ? EType.UNKNOWN : etype;
             }
             case GetField:
             case GetStatic: {
-                EType etype = EType.and(state.resolve(expr), EType.and(fromSource(state, expr), EType.subType(
+                EType etype = EType.and(state.resolve(expr), EType.and(fromSource(state, slot), EType.subType(
                     ((FieldReference) expr.getOperand()).getFieldType())));
                 return etype == null ? EType.UNKNOWN : etype;
             }
@@ -292,15 +317,15 @@ public class ETypeAnnotator extends Annotator<EType> {
                 return EType.subType(MetadataHelper.erase(mr).getReturnType());
             }
             case CheckCast:
-                return EType.and(EType.subType(MetadataHelper.erase((TypeReference) expr.getOperand())), get(expr
-                        .getArguments().get(0)));
+                return EType.and(EType.subType(MetadataHelper.erase((TypeReference) expr.getOperand())), get(slot
+                        .arg(0)));
             case Store:
             case PutStatic:
-                return get(expr.getArguments().get(0));
+                return get(slot.arg(0));
             case PutField:
-                return get(expr.getArguments().get(1));
+                return get(slot.arg(1));
             case StoreElement:
-                return get(expr.getArguments().get(2));
+                return get(slot.arg(2));
             case LoadElement:
                 return EType.subType(expr.getInferredType());
             default:
@@ -315,12 +340,13 @@ public class ETypeAnnotator extends Annotator<EType> {
 
         @Override
         public EType mergeFacts(EType f1, EType f2) {
-            return EType.or(f1, f2);
+            return facts.intern(EType.or(f1, f2));
         }
 
         @Override
         public boolean sameFact(EType f1, EType f2) {
-            return Objects.equals(f1, f2);
+            // facts are interned
+            return f1 == f2;
         }
 
         private EType resolve(ContextTypes ctx, Expression expr) {
@@ -330,9 +356,9 @@ public class ETypeAnnotator extends Annotator<EType> {
             return EType.and(get(expr), ctx.resolve(expr));
         }
 
-        private EType fromSource(ContextTypes ctx, Expression expr) {
-            Expression src = ValuesFlow.getSource(expr);
-            if (src == expr)
+        private EType fromSource(ContextTypes ctx, FactStore.Slot slot) {
+            Expression src = Inf.SOURCE.getSource(slot);
+            if (src == slot.expr)
                 return EType.UNKNOWN;
             EType value = resolve(ctx, src);
             if (value != null)
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Optional facts which can be computed by {@link ValuesFlow}. {@link Inf#SOURCE} is not listed here as it's always
+ * computed: every other fact depends on it. {@link Inf#BACKLINK} is not listed either as it's computed on the first
+ * query.
+ *
+ * @author lan
+ */
+public enum Fact {
+    /**
+     * {@link Inf#CONST}
+     */
+    CONST,
+    /**
+     * {@link Inf#ETYPE}
+     */
+    ETYPE(CONST),
+    /**
+     * {@link Inf#NULL}
+     */
+    NULL(CONST),
+    /**
+     * {@link Inf#PURITY}
+     */
+    PURITY(CONST);
+
+    private final Fact[] dependencies;
+
+    private Fact(Fact... dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * @param facts facts requested by detectors
+     * @return set which contains given facts and all the facts they are computed from
+     */
+    public static Set<Fact> withDependencies(Collection<Fact> facts) {
+        Set<Fact> result = EnumSet.noneOf(Fact.class);
+        for (Fact fact : facts) {
+            result.add(fact);
+            for (Fact dep : fact.dependencies) {
+                result.add(dep);
+            }
+        }
+        return result;
+    }
+}
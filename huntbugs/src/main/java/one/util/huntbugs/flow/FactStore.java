@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.strobel.componentmodel.Key;
+import com.strobel.decompiler.ast.Block;
+import com.strobel.decompiler.ast.Expression;
+
+import one.util.huntbugs.flow.CFG.BasicBlock;
+
+/**
+ * Per-method storage of annotator facts. Expressions are numbered once when
+ * the store is created and every annotator keeps its facts in the dense
+ * array indexed by expression number. Arrays are allocated on first write,
+ * so facts which are not computed take no memory.
+ * 
+ * <p>
+ * Expressions created during the analysis (like synthetic phi nodes) are
+ * attached to the store of the method they are created for. Only the
+ * expressions created outside of any method analysis get their own
+ * single-slot store.
+ * 
+ * <p>
+ * Facts which are rarely needed may be computed lazily for the whole store
+ * on the first query (see {@link #markComputed(int)}).
+ * 
+ * @author lan
+ */
+final class FactStore {
+    private static final Key<Slot> SLOT = Key.create("hb.slot");
+
+    private Object[][] columns;
+    private int size;
+    private boolean[] computed;
+    // method bodies (including lambdas) for lazily computed facts
+    List<Block> bodies = Collections.emptyList();
+
+    static final class Slot {
+        final FactStore store;
+        final int id;
+        final Expression expr;
+        // argument slots, resolved on first access
+        private Slot[] args;
+
+        Slot(FactStore store, int id, Expression expr) {
+            this.store = store;
+            this.id = id;
+            this.expr = expr;
+        }
+
+        Object get(int annotator) {
+            Object[][] columns = store.columns;
+            if (annotator >= columns.length)
+                return null;
+            Object[] column = columns[annotator];
+            return column == null || id >= column.length ? null : column[id];
+        }
+
+        void put(int annotator, Object data) {
+            store.column(annotator)[id] = data;
+        }
+
+        /**
+         * @param i argument index
+         * @return the slot of given expression argument, so the argument facts
+         *         are read without the user data lookup
+         */
+        Slot arg(int i) {
+            Slot[] args = this.args;
+            if (args == null) {
+                List<Expression> arguments = expr.getArguments();
+                args = new Slot[arguments.size()];
+                for (int j = 0; j < args.length; j++) {
+                    args[j] = store.attach(arguments.get(j));
+                }
+                this.args = args;
+            }
+            return args[i];
+        }
+    }
+
+    private FactStore() {
+        columns = new Object[Annotators.count()][];
+    }
+
+    /**
+     * Numbers all the expressions of given method (including lambda bodies)
+     * 
+     * @param cfg method CFG
+     * @return new store
+     */
+    static FactStore create(CFG cfg) {
+        FactStore store = new FactStore();
+        store.numberBlocks(cfg);
+        store.bodies = new ArrayList<>();
+        cfg.forBodies((md, body) -> {
+            store.bodies.add(body);
+            Annotator.forExpressions(body, store::number);
+        });
+        return store;
+    }
+
+    static Slot slot(Expression expr) {
+        return expr.getUserData(SLOT);
+    }
+
+    static Slot getOrCreateSlot(Expression expr) {
+        Slot slot = expr.getUserData(SLOT);
+        if (slot == null) {
+            FactStore store = new FactStore();
+            slot = store.newSlot(expr);
+        }
+        return slot;
+    }
+
+    /**
+     * Numbers synthetic expression which belongs to this store method (like
+     * parameter or phi node), so its facts are stored along with the method
+     * facts and the lazily computed facts can be found from it. Expression
+     * which is already numbered is left as is.
+     * 
+     * @param expr expression to attach
+     * @return the expression slot
+     */
+    Slot attach(Expression expr) {
+        Slot slot = slot(expr);
+        return slot == null ? newSlot(expr) : slot;
+    }
+
+    /**
+     * Marks the facts of given annotator as computed for all the store
+     * expressions
+     * 
+     * @param annotator annotator index
+     * @return true if the facts were not marked before, so the caller must
+     *         compute them now
+     */
+    boolean markComputed(int annotator) {
+        if (computed == null) {
+            computed = new boolean[Annotators.count()];
+        }
+        if (computed[annotator])
+            return false;
+        computed[annotator] = true;
+        return true;
+    }
+
+    /**
+     * @return number of expressions numbered in this store
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drops all the facts stored so far
+     */
+    void release() {
+        Arrays.fill(columns, null);
+        bodies = Collections.emptyList();
+    }
+
+    private void numberBlocks(CFG cfg) {
+        for (BasicBlock bb : cfg.blocks) {
+            bb.slot = attach(bb.expr);
+        }
+        for (CFG lambdaCFG : cfg.lambdas.values()) {
+            numberBlocks(lambdaCFG);
+        }
+    }
+
+    private void number(Expression expr) {
+        attach(expr);
+        for (Expression arg : expr.getArguments()) {
+            number(arg);
+        }
+    }
+
+    private Slot newSlot(Expression expr) {
+        Slot slot = new Slot(this, size++, expr);
+        expr.putUserData(SLOT, slot);
+        return slot;
+    }
+
+    private Object[] column(int annotator) {
+        if (annotator >= columns.length) {
+            columns = Arrays.copyOf(columns, Annotators.count());
+        }
+        Object[] column = columns[annotator];
+        if (column == null) {
+            column = columns[annotator] = new Object[size];
+        } else if (column.length < size) {
+            // expressions were attached after the column allocation
+            column = columns[annotator] = Arrays.copyOf(column, size);
+        }
+        return column;
+    }
+}
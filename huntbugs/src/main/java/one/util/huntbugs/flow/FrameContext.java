@@ -50,11 +50,24 @@ import com.strobel.decompiler.ast.Expression;
 class FrameContext {
     final MethodDefinition md;
     final ClassFields cf;
+    private final FactStore store;
     private final Map<Expression, Expression> updatedNodes = new HashMap<>();
     
-    FrameContext(MethodDefinition md, ClassFields cf) {
+    FrameContext(MethodDefinition md, ClassFields cf, FactStore store) {
         this.md = md;
         this.cf = cf;
+        this.store = store;
+    }
+    
+    /**
+     * Attaches the synthetic expression to the fact store of the analyzed method
+     * 
+     * @param expr synthetic expression
+     * @return passed expression
+     */
+    Expression attach(Expression expr) {
+        store.attach(expr);
+        return expr;
     }
     
     boolean isThis(Expression expr) {
@@ -99,18 +112,18 @@ class FrameContext {
         return Maps.compactify(map);
     }
     
-    private static Expression constant(Object val) {
-        Expression expr = new Expression(AstCode.LdC, val, 0);
+    private Expression constant(Object val) {
+        Expression expr = attach(new Expression(AstCode.LdC, val, 0));
         Inf.CONST.put(expr, val);
         return expr;
     }
 
-    private static Expression getInitialExpression(JvmType simpleType) {
+    private Expression getInitialExpression(JvmType simpleType) {
         switch(simpleType)
         {
         case Array:
         case Object:
-            return new Expression(AstCode.AConstNull, null, 0);
+            return attach(new Expression(AstCode.AConstNull, null, 0));
         case Integer:
         case Byte:
         case Short:
@@ -131,7 +144,7 @@ class FrameContext {
     Expression makeUpdatedNode(Expression src) {
         if(src.getCode() == SourceAnnotator.UPDATE_TYPE)
             return src;
-        return updatedNodes.computeIfAbsent(src, s -> new Expression(SourceAnnotator.UPDATE_TYPE, null, s.getOffset(), s));
+        return updatedNodes.computeIfAbsent(src, s -> attach(new Expression(SourceAnnotator.UPDATE_TYPE, null, s.getOffset(), s)));
     }
 
     public void makeFieldsFrom(Frame frame) {
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of canonical lattice values. Every dataflow run has its own table,
+ * so equal facts produced during the run are represented by the same instance
+ * and can be compared by reference.
+ * 
+ * @author lan
+ */
+final class Interner<T> {
+    private final List<T> predefined;
+    private Map<T, T> values;
+
+    /**
+     * @param predefined values which are canonical by construction (like
+     *        unknown fact constant)
+     */
+    Interner(List<T> predefined) {
+        this.predefined = new ArrayList<>(predefined);
+    }
+
+    T intern(T value) {
+        if (value == null)
+            return null;
+        for (T p : predefined) {
+            if (p == value)
+                return value;
+        }
+        if (values == null) {
+            values = new HashMap<>();
+            for (T p : predefined) {
+                values.put(p, p);
+            }
+        }
+        T canonical = values.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package one.util.huntbugs.flow;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
@@ -29,6 +30,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.CFG.BasicBlock;
 import one.util.huntbugs.util.Exprs;
 import one.util.huntbugs.util.Methods;
 
@@ -42,9 +44,13 @@ public class NullAnnotator extends Annotator<Nullness> {
         super("null", null);
     }
 
-    boolean build(CFG cfg) {
+    boolean build(CFG cfg, boolean sparse, int maxIter) {
+        if (sparse) {
+            return cfg.<ContextNulls, Nullness> runSparse(this, (subCFG, closure) -> new NullDataflow(subCFG.md,
+                    closure == null ? ContextNulls.DEFAULT : closure, new Refinements(subCFG)), maxIter);
+        }
         return cfg.<ContextNulls, Nullness> runDFA(this, (md, closure) -> new NullDataflow(md, closure == null
-                ? ContextNulls.DEFAULT : closure), 7);
+                ? ContextNulls.DEFAULT : closure, null), maxIter);
     }
 
     public Nullness resolve(Expression expr) {
@@ -52,6 +58,122 @@ public class NullAnnotator extends Annotator<Nullness> {
         return nullability == null ? Nullness.UNKNOWN : nullability;
     }
 
+    static boolean isErrorMethod(MethodReference mr) {
+        String lcName = mr.getName().toLowerCase(Locale.ENGLISH);
+        return lcName.contains("error") && !mr.getDeclaringType().getSimpleName().contains("Log") || lcName
+                .startsWith("throw") || lcName.startsWith("fail");
+    }
+
+    static boolean isNullCheckMethod(MethodReference mr) {
+        String name = mr.getName();
+        String typeName = mr.getDeclaringType().getInternalName();
+        return typeName.endsWith("/Assert") && name.equals("assertNotNull") || typeName.equals(
+            "com/google/common/base/Preconditions") && name.equals("checkNotNull") || typeName.equals(
+                "java/util/Objects") && name.equals("requireNonNull");
+    }
+
+    /**
+     * Positions of the expressions which refine the variable nullness in the dense mode: dereferences, null checks
+     * and comparisons. Sparse mode does not track them, so nullable value of the variable is not reported if some
+     * refinement may precede its load. Error method calls reset the dense state, so they refine every variable.
+     */
+    static class Refinements {
+        private final CFG cfg;
+        // Smallest and largest block id of the refinements per variable
+        private final Map<Variable, int[]> ranges = new HashMap<>();
+        private int[] errorRange;
+        private final FactStore store;
+        // Largest block id per expression slot (duplicated expressions share the slot)
+        private final int[] slotBlocks;
+
+        Refinements(CFG cfg) {
+            this.cfg = cfg;
+            // Lambda blocks are numbered in the store of the enclosing method
+            this.store = cfg.blocks.isEmpty() ? null : cfg.blocks.get(0).slot.store;
+            this.slotBlocks = new int[store == null ? 0 : store.size()];
+            Arrays.fill(slotBlocks, -1);
+            for (BasicBlock bb : cfg.blocks) {
+                slotBlocks[bb.slot.id] = Math.max(slotBlocks[bb.slot.id], bb.id);
+                if (bb.reached) {
+                    collect(bb);
+                }
+            }
+        }
+
+        private void collect(BasicBlock bb) {
+            Expression expr = bb.expr;
+            switch (expr.getCode()) {
+            case InvokeInterface:
+            case InvokeSpecial:
+            case InvokeStatic:
+            case InvokeVirtual: {
+                MethodReference mr = (MethodReference) expr.getOperand();
+                if (isErrorMethod(mr)) {
+                    errorRange = add(errorRange, bb.id);
+                }
+                if (expr.getCode() == AstCode.InvokeStatic) {
+                    if (isNullCheckMethod(mr)) {
+                        expr.getArguments().forEach(arg -> add(arg, bb.id));
+                    }
+                    break;
+                }
+                if (expr.getCode() == AstCode.InvokeVirtual && Methods.isEqualsMethod(mr)) {
+                    add(expr.getArguments().get(1), bb.id);
+                }
+                add(expr.getArguments().get(0), bb.id);
+                break;
+            }
+            case MonitorEnter:
+            case MonitorExit:
+            case GetField:
+            case PutField:
+            case StoreElement:
+            case LoadElement:
+            case InstanceOf:
+                add(expr.getArguments().get(0), bb.id);
+                break;
+            case CmpEq:
+            case CmpNe:
+                add(expr.getArguments().get(0), bb.id);
+                add(expr.getArguments().get(1), bb.id);
+                break;
+            default:
+            }
+        }
+
+        private void add(Expression arg, int id) {
+            if (arg.getCode() == AstCode.Load) {
+                Variable var = (Variable) arg.getOperand();
+                ranges.put(var, add(ranges.get(var), id));
+            }
+        }
+
+        private static int[] add(int[] range, int id) {
+            if (range == null)
+                return new int[] { id, id };
+            range[0] = Math.min(range[0], id);
+            range[1] = Math.max(range[1], id);
+            return range;
+        }
+
+        boolean isRefined(FactStore.Slot slot) {
+            int[] range = ranges.get(slot.expr.getOperand());
+            if (range == null && errorRange == null)
+                return false;
+            if (slot.store != store)
+                return false;
+            // mayPrecede is monotonic in id, so the last duplicate decides
+            int id = slotBlocks[slot.id];
+            return id >= 0 && (mayPrecede(range, id) || mayPrecede(errorRange, id));
+        }
+
+        private boolean mayPrecede(int[] range, int id) {
+            // Backward edges never lead before forwardTill, so outside of loops only
+            // the blocks with smaller id may precede
+            return range != null && (range[0] < id || id >= cfg.forwardTill && range[1] >= cfg.forwardTill);
+        }
+    }
+
     static class ContextNulls {
         static final ContextNulls DEFAULT = new ContextNulls(null);
 
@@ -74,6 +196,18 @@ public class NullAnnotator extends Annotator<Nullness> {
             return newNulls.isEmpty() ? DEFAULT : new ContextNulls(newNulls);
         }
 
+        ContextNulls widen() {
+            if (values == null)
+                return this;
+            // Forget the non-null states: copies between the variables may change them one variable per iteration.
+            // Nullable states can only grow up to NULLABLE and keep the null expressions required for reporting
+            Map<Variable, Nullness> newNulls = new HashMap<>(values);
+            newNulls.values().removeIf(value -> !value.isNullable());
+            if (newNulls.size() == values.size())
+                return this;
+            return newNulls.isEmpty() ? DEFAULT : new ContextNulls(newNulls);
+        }
+
         ContextNulls and(Variable var, Nullness value) {
             if (values == null) {
                 return new ContextNulls(Collections.singletonMap(var, value));
@@ -120,9 +254,9 @@ public class NullAnnotator extends Annotator<Nullness> {
             return new ContextNulls(newValues);
         }
 
-        ContextNulls transfer(Expression expr) {
-            if (expr.getCode() == AstCode.Store) {
-                return add((Variable) expr.getOperand(), Inf.NULL.get(expr.getArguments().get(0)));
+        ContextNulls transfer(FactStore.Slot slot) {
+            if (slot.expr.getCode() == AstCode.Store) {
+                return add((Variable) slot.expr.getOperand(), Inf.NULL.get(slot.arg(0)));
             }
             return this;
         }
@@ -151,12 +285,17 @@ public class NullAnnotator extends Annotator<Nullness> {
     }
 
     class NullDataflow implements Dataflow<Nullness, ContextNulls> {
+        private final Interner<Nullness> facts = new Interner<>(Arrays.asList(Nullness.UNKNOWN, Nullness.NONNULL,
+            Nullness.NONNULL_DEREF, Nullness.NONNULL_CHECKED));
         private final ContextNulls initial;
         private final MethodDefinition md;
+        // not null in sparse mode
+        private final Refinements refinements;
 
-        NullDataflow(MethodDefinition md, ContextNulls initial) {
+        NullDataflow(MethodDefinition md, ContextNulls initial, Refinements refinements) {
             this.initial = initial;
             this.md = md;
+            this.refinements = refinements;
         }
 
         @Override
@@ -165,16 +304,15 @@ public class NullAnnotator extends Annotator<Nullness> {
         }
 
         @Override
-        public ContextNulls transferState(ContextNulls src, Expression expr) {
+        public ContextNulls transferState(ContextNulls src, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             switch (expr.getCode()) {
             case InvokeInterface:
             case InvokeSpecial:
             case InvokeStatic:
             case InvokeVirtual:
                 MethodReference mr = (MethodReference) expr.getOperand();
-                String lcName = mr.getName().toLowerCase(Locale.ENGLISH);
-                if (lcName.contains("error") && !mr.getDeclaringType().getSimpleName().contains("Log") || lcName
-                        .startsWith("throw") || lcName.startsWith("fail"))
+                if (isErrorMethod(mr))
                     return ContextNulls.DEFAULT;
             default:
             }
@@ -197,11 +335,7 @@ public class NullAnnotator extends Annotator<Nullness> {
             }
             case InvokeStatic: {
                 MethodReference mr = (MethodReference) expr.getOperand();
-                String name = mr.getName();
-                String typeName = mr.getDeclaringType().getInternalName();
-                if (typeName.endsWith("/Assert") && name.equals("assertNotNull") || typeName.equals(
-                    "com/google/common/base/Preconditions") && name.equals("checkNotNull") || typeName.equals(
-                        "java/util/Objects") && name.equals("requireNonNull")) {
+                if (isNullCheckMethod(mr)) {
                     if (expr.getArguments().size() == 1) {
                         Expression arg = expr.getArguments().get(0);
                         if (arg.getCode() == AstCode.Load) {
@@ -226,21 +360,22 @@ public class NullAnnotator extends Annotator<Nullness> {
             }
             default:
             }
-            return src.transfer(expr);
+            return src.transfer(slot);
         }
 
         @Override
-        public ContextNulls transferExceptionalState(ContextNulls src, Expression expr) {
+        public ContextNulls transferExceptionalState(ContextNulls src, FactStore.Slot slot) {
             return src.exceptional();
         }
 
         @Override
-        public TrueFalse<ContextNulls> transferConditionalState(ContextNulls src, Expression expr) {
+        public TrueFalse<ContextNulls> transferConditionalState(ContextNulls src, FactStore.Slot slot) {
             boolean invert = false;
-            while (expr.getCode() == AstCode.LogicalNot) {
+            while (slot.expr.getCode() == AstCode.LogicalNot) {
                 invert = !invert;
-                expr = expr.getArguments().get(expr.getArguments().size() - 1);
+                slot = slot.arg(slot.expr.getArguments().size() - 1);
             }
+            Expression expr = slot.expr;
             Variable var;
             if (expr.getCode() == AstCode.InstanceOf) {
                 Expression arg = expr.getArguments().get(0);
@@ -256,7 +391,7 @@ public class NullAnnotator extends Annotator<Nullness> {
                 ContextNulls trueSrc = src;
                 if (left.getCode() == AstCode.Load) {
                     var = (Variable) left.getOperand();
-                    Nullness nullness = Inf.NULL.get(right);
+                    Nullness nullness = Inf.NULL.get(slot.arg(1));
                     if (nullness != null && nullness.isNull())
                         return new TrueFalse<>(src.and(var, Nullness.nullAt(expr)), src.and(var, Nullness.NONNULL_CHECKED),
                                 invert);
@@ -264,7 +399,7 @@ public class NullAnnotator extends Annotator<Nullness> {
                 }
                 if (right.getCode() == AstCode.Load) {
                     var = (Variable) right.getOperand();
-                    Nullness nullness = Inf.NULL.get(left);
+                    Nullness nullness = Inf.NULL.get(slot.arg(0));
                     if (nullness != null && nullness.isNull())
                         return new TrueFalse<>(trueSrc.and(var, Nullness.nullAt(expr)), src.and(var, Nullness.NONNULL_CHECKED),
                                 invert);
@@ -286,20 +421,30 @@ public class NullAnnotator extends Annotator<Nullness> {
             return s1.merge(s2);
         }
 
+        @Override
+        public ContextNulls widenStates(ContextNulls oldState, ContextNulls mergedState) {
+            return mergedState.widen();
+        }
+
         @Override
         public boolean sameState(ContextNulls s1, ContextNulls s2) {
             return s1.equals(s2);
         }
 
         @Override
-        public Nullness makeFact(ContextNulls state, Expression expr) {
-            if (Inf.CONST.getValue(expr) != null)
+        public Nullness makeFact(ContextNulls state, FactStore.Slot slot) {
+            return facts.intern(computeFact(state, slot));
+        }
+
+        private Nullness computeFact(ContextNulls state, FactStore.Slot slot) {
+            if (Inf.CONST.getValue(slot) != null)
                 return Nullness.NONNULL;
+            Expression expr = slot.expr;
             switch (expr.getCode()) {
             case TernaryOp: {
-                Object cond = Inf.CONST.get(expr.getArguments().get(0));
-                Nullness left = get(expr.getArguments().get(1));
-                Nullness right = get(expr.getArguments().get(2));
+                Object cond = Inf.CONST.get(slot.arg(0));
+                Nullness left = get(slot.arg(1));
+                Nullness right = get(slot.arg(2));
                 if (Integer.valueOf(1).equals(cond) || Boolean.TRUE.equals(cond)) {
                     return left;
                 }
@@ -311,7 +456,7 @@ public class NullAnnotator extends Annotator<Nullness> {
             case Load:
                 if (!md.isStatic() && Exprs.isThis(expr))
                     return Nullness.NONNULL;
-                return state.resolve(expr);
+                return refinements == null ? state.resolve(expr) : fromSourceSparse(slot);
             case GetField:
                 return Nullness.UNKNOWN;
             // Cannot reliably make facts from fields until they are directly supported by Context
@@ -332,11 +477,11 @@ public class NullAnnotator extends Annotator<Nullness> {
             case CheckCast:
             case Store:
             case PutStatic:
-                return get(expr.getArguments().get(0));
+                return get(slot.arg(0));
             case PutField:
-                return get(expr.getArguments().get(1));
+                return get(slot.arg(1));
             case StoreElement:
-                return get(expr.getArguments().get(2));
+                return get(slot.arg(2));
             case AConstNull:
                 return Nullness.nullAt(expr);
             default:
@@ -353,12 +498,37 @@ public class NullAnnotator extends Annotator<Nullness> {
         public Nullness mergeFacts(Nullness f1, Nullness f2) {
             if (f1 == null)
                 return f2;
-            return f1.or(f2);
+            return facts.intern(f1.or(f2));
         }
 
         @Override
         public boolean sameFact(Nullness f1, Nullness f2) {
-            return Objects.equals(f1, f2);
+            // facts are interned
+            return f1 == f2;
+        }
+
+        private Nullness fromSourceSparse(FactStore.Slot slot) {
+            Expression src = Inf.SOURCE.getSource(slot);
+            if (src == slot.expr)
+                return Nullness.UNKNOWN;
+            Nullness value = null;
+            if (src.getCode() == SourceAnnotator.PHI_TYPE) {
+                for (Expression child : src.getArguments()) {
+                    Nullness newVal = get(child);
+                    if (newVal == null) {
+                        if (Exprs.isParameter(child) || child.getCode() == SourceAnnotator.UPDATE_TYPE)
+                            return Nullness.UNKNOWN;
+                        // not evaluated yet: will be re-evaluated when it's done
+                        continue;
+                    }
+                    value = value == null ? newVal : value.or(newVal);
+                }
+            } else {
+                value = get(src);
+            }
+            if (value == null || value.isNullable() && refinements.isRefined(slot))
+                return Nullness.UNKNOWN;
+            return value;
         }
 
         private Nullness resolve(ContextNulls ctx, Expression expr) {
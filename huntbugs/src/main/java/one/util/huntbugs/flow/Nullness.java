@@ -53,8 +53,10 @@ public class Nullness {
         this.state = state;
         if (exprs1.isEmpty()) {
             this.expressions = exprs2;
-        } else if (exprs2.isEmpty()) {
+        } else if (exprs2.isEmpty() || exprs1.containsAll(exprs2)) {
             this.expressions = exprs1;
+        } else if (exprs2.containsAll(exprs1)) {
+            this.expressions = exprs2;
         } else {
             this.expressions = new HashSet<>(exprs1);
             this.expressions.addAll(exprs2);
@@ -83,16 +85,25 @@ public class Nullness {
         if (this == other || other == null)
             return this;
         if (this.state == other.state)
-            return new Nullness(state, this.expressions, other.expressions);
+            return union(state, other);
         if (this.isNull() || other.isNull() || state == NullState.NULLABLE || other.state == NullState.NULLABLE)
-            return new Nullness(NullState.NULLABLE, this.expressions, other.expressions);
+            return union(NullState.NULLABLE, other);
         if (state == NullState.NULL_EXCEPTIONAL || other.state == NullState.NULL_EXCEPTIONAL)
-            return new Nullness(NullState.NULL_EXCEPTIONAL, this.expressions, other.expressions);
+            return union(NullState.NULL_EXCEPTIONAL, other);
         if (this == UNKNOWN || other == UNKNOWN)
             return UNKNOWN;
         return NONNULL;
     }
     
+    private Nullness union(NullState state, Nullness other) {
+        // Reuse the operand which already covers the result
+        if (this.state == state && this.expressions.containsAll(other.expressions))
+            return this;
+        if (other.state == state && other.expressions.containsAll(this.expressions))
+            return other;
+        return new Nullness(state, this.expressions, other.expressions);
+    }
+    
     Nullness asExceptional() {
         if(isNull()) {
             return new Nullness(NullState.NULL_EXCEPTIONAL, expressions);
@@ -124,6 +135,10 @@ public class Nullness {
         throw new InternalError("Unexpected: "+this+" and "+other);
     }
 
+    boolean isNullable() {
+        return state == NullState.NULL || state == NullState.NULLABLE || state == NullState.NULL_EXCEPTIONAL;
+    }
+
     public boolean isNonNull() {
         return this == NONNULL || this == NONNULL_DEREF || this == NONNULL_CHECKED;
     }
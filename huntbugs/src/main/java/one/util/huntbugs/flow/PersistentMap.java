@@ -0,0 +1,385 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash array mapped trie. Updates return new map which shares
+ * unchanged nodes with the original one, so the maps derived from each other
+ * can be compared and merged visiting only the differing parts.
+ *
+ * <p>
+ * Keys are compared either by identity or by equals. Null keys and values
+ * are not supported.
+ *
+ * @author lan
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(false, null, 0);
+    private static final PersistentMap<?, ?> EMPTY_IDENTITY = new PersistentMap<>(true, null, 0);
+
+    private final boolean identity;
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(boolean identity, Node root, int size) {
+        this.identity = identity;
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> emptyIdentity() {
+        return (PersistentMap<K, V>) EMPTY_IDENTITY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        return root == null ? null : (V) root.get(key, hash(key), 0, identity);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    PersistentMap<K, V> plus(K key, V value) {
+        int[] sizeDelta = {0};
+        int hash = hash(key);
+        Node newRoot = root == null ? new BitmapNode(0, new Object[0]).plus(key, value, hash, 0, identity, sizeDelta)
+                : root.plus(key, value, hash, 0, identity, sizeDelta);
+        return newRoot == root ? this : new PersistentMap<>(identity, newRoot, size + sizeDelta[0]);
+    }
+
+    PersistentMap<K, V> plusAll(Map<K, V> map) {
+        PersistentMap<K, V> result = this;
+        for (Entry<K, V> e : map.entrySet()) {
+            result = result.plus(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    PersistentMap<K, V> minus(K key) {
+        if (root == null)
+            return this;
+        int[] sizeDelta = {0};
+        Node newRoot = root.minus(key, hash(key), 0, identity, sizeDelta);
+        return newRoot == root ? this : new PersistentMap<>(identity, newRoot, size + sizeDelta[0]);
+    }
+
+    /**
+     * Returns the entries of this map except the ones which are known to be
+     * the same in the other map as they are stored in the shared trie nodes.
+     *
+     * @param other map to compare with (must use the same key equivalence)
+     * @return list of entries which may differ
+     */
+    List<Entry<K, V>> differentEntries(PersistentMap<K, V> other) {
+        List<Entry<K, V>> result = new ArrayList<>();
+        if (root != null && root != other.root) {
+            diff(root, other.root, result);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null)
+            root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                List<Entry<K, V>> entries = new ArrayList<>(size);
+                PersistentMap.this.forEach((k, v) -> entries.add(new SimpleImmutableEntry<>(k, v)));
+                return entries.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int hash(Object key) {
+        int h = identity ? System.identityHashCode(key) : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void diff(Node left, Node right, List<Entry<K, V>> result) {
+        if (left instanceof BitmapNode && right instanceof BitmapNode) {
+            BitmapNode l = (BitmapNode) left, r = (BitmapNode) right;
+            for (int bit = 0; bit <= MASK; bit++) {
+                int mask = 1 << bit;
+                if ((l.bitmap & mask) == 0)
+                    continue;
+                int li = l.index(mask) * 2;
+                Object lk = l.array[li], lv = l.array[li + 1];
+                if ((r.bitmap & mask) != 0) {
+                    int ri = r.index(mask) * 2;
+                    Object rk = r.array[ri], rv = r.array[ri + 1];
+                    if (lv == rv && lk == rk)
+                        continue;
+                    if (lk == null && rk == null) {
+                        diff((Node) lv, (Node) rv, result);
+                        continue;
+                    }
+                }
+                if (lk == null)
+                    ((Node) lv).forEach((k, v) -> result.add(new SimpleImmutableEntry<>((K) k, (V) v)));
+                else
+                    result.add(new SimpleImmutableEntry<>((K) lk, (V) lv));
+            }
+        } else if (left != right) {
+            left.forEach((k, v) -> result.add(new SimpleImmutableEntry<>((K) k, (V) v)));
+        }
+    }
+
+    static boolean keyEquals(Object k1, Object k2, boolean identity) {
+        return k1 == k2 || !identity && k1.equals(k2);
+    }
+
+    private abstract static class Node {
+        abstract Object get(Object key, int hash, int shift, boolean identity);
+
+        abstract Node plus(Object key, Object value, int hash, int shift, boolean identity, int[] sizeDelta);
+
+        abstract Node minus(Object key, int hash, int shift, boolean identity, int[] sizeDelta);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node which stores key-value pairs or (null, subnode) pairs for every set
+     * bit of the bitmap
+     */
+    private static final class BitmapNode extends Node {
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        int index(int mask) {
+            return Integer.bitCount(bitmap & (mask - 1));
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift, boolean identity) {
+            int mask = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & mask) == 0)
+                return null;
+            int idx = index(mask) * 2;
+            Object k = array[idx];
+            if (k == null)
+                return ((Node) array[idx + 1]).get(key, hash, shift + BITS, identity);
+            return keyEquals(k, key, identity) ? array[idx + 1] : null;
+        }
+
+        @Override
+        Node plus(Object key, Object value, int hash, int shift, boolean identity, int[] sizeDelta) {
+            int mask = 1 << ((hash >>> shift) & MASK);
+            int idx = index(mask) * 2;
+            if ((bitmap & mask) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, idx);
+                newArray[idx] = key;
+                newArray[idx + 1] = value;
+                System.arraycopy(array, idx, newArray, idx + 2, array.length - idx);
+                sizeDelta[0]++;
+                return new BitmapNode(bitmap | mask, newArray);
+            }
+            Object k = array[idx];
+            Object v = array[idx + 1];
+            Object newValue;
+            if (k == null) {
+                newValue = ((Node) v).plus(key, value, hash, shift + BITS, identity, sizeDelta);
+            } else if (keyEquals(k, key, identity)) {
+                newValue = value;
+            } else {
+                int oldHash = identity ? System.identityHashCode(k) : k.hashCode();
+                oldHash ^= oldHash >>> 16;
+                Node sub;
+                if (oldHash == hash) {
+                    sub = new CollisionNode(hash, new Object[] { k, v, key, value });
+                } else {
+                    sub = new BitmapNode(0, new Object[0]).plus(k, v, oldHash, shift + BITS, identity, new int[1])
+                            .plus(key, value, hash, shift + BITS, identity, new int[1]);
+                }
+                sizeDelta[0]++;
+                Object[] newArray = array.clone();
+                newArray[idx] = null;
+                newArray[idx + 1] = sub;
+                return new BitmapNode(bitmap, newArray);
+            }
+            if (newValue == v)
+                return this;
+            Object[] newArray = array.clone();
+            newArray[idx + 1] = newValue;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Node minus(Object key, int hash, int shift, boolean identity, int[] sizeDelta) {
+            int mask = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & mask) == 0)
+                return this;
+            int idx = index(mask) * 2;
+            Object k = array[idx];
+            if (k == null) {
+                Node sub = (Node) array[idx + 1];
+                Node newSub = sub.minus(key, hash, shift + BITS, identity, sizeDelta);
+                if (newSub == sub)
+                    return this;
+                if (newSub != null) {
+                    Object[] newArray = array.clone();
+                    newArray[idx + 1] = newSub;
+                    return new BitmapNode(bitmap, newArray);
+                }
+            } else if (!keyEquals(k, key, identity)) {
+                return this;
+            } else {
+                sizeDelta[0]--;
+            }
+            if (array.length == 2)
+                return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, idx);
+            System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+            return new BitmapNode(bitmap & ~mask, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null)
+                    ((Node) array[i + 1]).forEach(action);
+                else
+                    action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Node which stores key-value pairs having the same hash code
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int find(Object key, boolean identity) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (keyEquals(array[i], key, identity))
+                    return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift, boolean identity) {
+            if (hash != this.hash)
+                return null;
+            int idx = find(key, identity);
+            return idx < 0 ? null : array[idx + 1];
+        }
+
+        @Override
+        Node plus(Object key, Object value, int hash, int shift, boolean identity, int[] sizeDelta) {
+            if (hash != this.hash) {
+                int mask = 1 << ((this.hash >>> shift) & MASK);
+                return new BitmapNode(mask, new Object[] { null, this }).plus(key, value, hash, shift, identity,
+                    sizeDelta);
+            }
+            int idx = find(key, identity);
+            if (idx >= 0) {
+                if (array[idx + 1] == value)
+                    return this;
+                Object[] newArray = array.clone();
+                newArray[idx + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            sizeDelta[0]++;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node minus(Object key, int hash, int shift, boolean identity, int[] sizeDelta) {
+            if (hash != this.hash)
+                return this;
+            int idx = find(key, identity);
+            if (idx < 0)
+                return this;
+            sizeDelta[0]--;
+            if (array.length == 2)
+                return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, idx);
+            System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+}
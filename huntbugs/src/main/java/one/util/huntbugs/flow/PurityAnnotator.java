@@ -90,7 +90,7 @@ public class PurityAnnotator extends Annotator<PurityAnnotator.Purity> {
                 return Purity.HEAP_MOD;
             case InitObject: {
                 MethodReference mr = (MethodReference) expr.getOperand();
-                if (!fc.cf.isSideEffectFree(mr, true))
+                if (!fc.cf.isNewObjectSideEffectFree(mr))
                     return Purity.HEAP_MOD;
                 if (Types.isImmutable(mr.getDeclaringType()))
                     return Purity.CONST;
@@ -17,13 +17,10 @@ package one.util.huntbugs.flow;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.Map.Entry;
@@ -40,7 +37,6 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Variable;
 
 import one.util.huntbugs.util.Exprs;
-import one.util.huntbugs.util.Maps;
 import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
 
 /**
@@ -55,13 +51,13 @@ public class SourceAnnotator extends Annotator<Expression> {
         super("source", null);
     }
     
-    Collection<Expression> build(ClassFields cf, CFG cfg) {
+    Collection<Expression> build(ClassFields cf, CFG cfg, int maxIter) {
         AtomicReference<Collection<Expression>> origFrame = new AtomicReference<>();
         boolean valid = cfg.<Frame, Expression>runDFA(this, (md, closure) -> {
-            SourceDataflow df = new SourceDataflow(cf, md, closure);
+            SourceDataflow df = new SourceDataflow(cf, md, closure, cfg.facts);
             origFrame.compareAndSet(null, df.origFrame.initial.values());
             return df;
-        }, 7);
+        }, maxIter);
         return valid ? origFrame.get() : null;
     }
     
@@ -70,6 +66,11 @@ public class SourceAnnotator extends Annotator<Expression> {
         return source == null ? input : source;
     }
 
+    Expression getSource(FactStore.Slot slot) {
+        Expression source = get(slot);
+        return source == null ? slot.expr : source;
+    }
+
     static Stream<Expression> children(Set<Expression> visited, Expression parent) {
         if(parent.getCode() == PHI_TYPE) {
             return parent.getArguments().stream();
@@ -110,7 +111,7 @@ public class SourceAnnotator extends Annotator<Expression> {
         if (children.size() == baseSize) {
             return left;
         }
-        return new Expression(PHI_TYPE, null, 0, children);
+        return fc.attach(new Expression(PHI_TYPE, null, 0, children));
     }
 
     static boolean isExprEqual(Expression left, Expression right) {
@@ -133,14 +134,13 @@ public class SourceAnnotator extends Annotator<Expression> {
     }
 
     static class Frame {
-        private final Map<Variable, Expression> sources;
+        private final PersistentMap<Variable, Expression> sources;
         private final FrameContext fc;
-        final Map<MemberInfo, Expression> fieldValues;
+        final PersistentMap<MemberInfo, Expression> fieldValues;
         final Map<ParameterDefinition, Expression> initial;
         
         Frame(FrameContext fc, Frame closure) {
-            this.sources = new IdentityHashMap<>();
-            this.fieldValues = fc.getInitialFields();
+            this.fieldValues = PersistentMap.<MemberInfo, Expression>empty().plusAll(fc.getInitialFields());
             this.fc = fc;
             this.initial = new IdentityHashMap<>();
             for(ParameterDefinition pd : fc.md.getParameters()) {
@@ -152,11 +152,13 @@ public class SourceAnnotator extends Annotator<Expression> {
             }
             if(closure != null) {
                 initial.putAll(closure.initial);
-                sources.putAll(closure.sources);
+                this.sources = closure.sources;
+            } else {
+                this.sources = PersistentMap.emptyIdentity();
             }
         }
     
-        private Frame(Frame parent, Map<Variable, Expression> sources, Map<MemberInfo, Expression> fields) {
+        private Frame(Frame parent, PersistentMap<Variable, Expression> sources, PersistentMap<MemberInfo, Expression> fields) {
             this.fc = parent.fc;
             this.initial = parent.initial;
             this.fieldValues = fields;
@@ -171,59 +173,47 @@ public class SourceAnnotator extends Annotator<Expression> {
         }
     
         private void putInitial(ParameterDefinition thisParam) {
-            Expression pde = new Expression(AstCode.Load, thisParam, 0);
+            Expression pde = fc.attach(new Expression(AstCode.Load, thisParam, 0));
             pde.setExpectedType(thisParam.getParameterType());
             pde.setInferredType(thisParam.getParameterType());
             initial.put(thisParam, pde);
         }
     
         Frame merge(Frame other, FrameContext fc) {
-            Map<Variable, Expression> res = mergeSources(other, fc);
-            Map<MemberInfo, Expression> resFields = mergeFields(other.fieldValues, fc);
-            if(resFields == null && res == null)
+            PersistentMap<Variable, Expression> res = mergeSources(other, fc);
+            PersistentMap<MemberInfo, Expression> resFields = mergeFields(other.fieldValues, fc);
+            if(resFields == fieldValues && res == sources)
                 return this;
-            if(resFields == null)
-                resFields = fieldValues;
-            if(res == null)
-                res = sources;
             return new Frame(this, res, resFields);
         }
     
-        private Map<MemberInfo, Expression> mergeFields(Map<MemberInfo, Expression> other, FrameContext fc) {
-            Map<MemberInfo, Expression> resFields = null;
-            for (Entry<MemberInfo, Expression> e : fieldValues.entrySet()) {
+        private PersistentMap<MemberInfo, Expression> mergeFields(PersistentMap<MemberInfo, Expression> other, FrameContext fc) {
+            PersistentMap<MemberInfo, Expression> resFields = fieldValues;
+            // entries stored in the shared nodes are equal, so their phi node is the same expression
+            for (Entry<MemberInfo, Expression> e : fieldValues.differentEntries(other)) {
                 Expression left = e.getValue();
                 Expression right = other.get(e.getKey());
-                Expression phi = left == null || right == null ? null : makePhiNode(left, right, fc);
+                Expression phi = right == null ? null : makePhiNode(left, right, fc);
                 if (phi == left)
                     continue;
-                if (resFields == null)
-                    resFields = new HashMap<>(fieldValues);
-                resFields.put(e.getKey(), phi);
+                resFields = phi == null ? resFields.minus(e.getKey()) : resFields.plus(e.getKey(), phi);
             }
-            if(resFields == null)
-                return null;
-            resFields.values().removeIf(Objects::isNull);
-            return Maps.compactify(resFields);
+            return resFields;
         }
     
-        private Map<Variable, Expression> mergeSources(Frame other, FrameContext fc) {
-            Map<Variable, Expression> res = null;
-            for (Entry<Variable, Expression> e : sources.entrySet()) {
+        private PersistentMap<Variable, Expression> mergeSources(Frame other, FrameContext fc) {
+            PersistentMap<Variable, Expression> res = sources;
+            for (Entry<Variable, Expression> e : sources.differentEntries(other.sources)) {
                 Expression left = e.getValue();
                 Expression right = other.get(e.getKey());
                 Expression phi = makePhiNode(left, right, fc);
                 if (phi == left)
                     continue;
-                if (res == null)
-                    res = new IdentityHashMap<>(sources);
-                res.put(e.getKey(), phi);
+                res = res.plus(e.getKey(), phi);
             }
-            for(Entry<Variable, Expression> e : other.sources.entrySet()) {
+            for(Entry<Variable, Expression> e : other.sources.differentEntries(sources)) {
                 if(!sources.containsKey(e.getKey())) {
-                    if (res == null)
-                        res = new IdentityHashMap<>(sources);
-                    res.put(e.getKey(), makePhiNode(e.getValue(), initial.get(e.getKey().getOriginalParameter()), fc));
+                    res = res.plus(e.getKey(), makePhiNode(e.getValue(), initial.get(e.getKey().getOriginalParameter()), fc));
                 }
             }
             return res;
@@ -232,19 +222,19 @@ public class SourceAnnotator extends Annotator<Expression> {
         static boolean isEqual(Frame left, Frame right) {
             if (left == right)
                 return true;
-            Map<Variable, Expression> l = left.sources;
-            Map<Variable, Expression> r = right.sources;
+            PersistentMap<Variable, Expression> l = left.sources;
+            PersistentMap<Variable, Expression> r = right.sources;
             if(l.size() != r.size())
                 return false;
-            for(Entry<Variable, Expression> e : l.entrySet()) {
+            for(Entry<Variable, Expression> e : l.differentEntries(r)) {
                 if(!isExprEqual(e.getValue(), r.get(e.getKey())))
                     return false;
             }
-            Map<MemberInfo, Expression> lf = left.fieldValues;
-            Map<MemberInfo, Expression> rf = right.fieldValues;
+            PersistentMap<MemberInfo, Expression> lf = left.fieldValues;
+            PersistentMap<MemberInfo, Expression> rf = right.fieldValues;
             if(lf.size() != rf.size())
                 return false;
-            for(Entry<MemberInfo, Expression> e : lf.entrySet()) {
+            for(Entry<MemberInfo, Expression> e : lf.differentEntries(rf)) {
                 if(!isExprEqual(e.getValue(), rf.get(e.getKey())))
                     return false;
             }
@@ -254,71 +244,60 @@ public class SourceAnnotator extends Annotator<Expression> {
         private Frame replace(Variable var, Expression replacement) {
             Expression expression = get(var);
             if (expression != replacement) {
-                Map<Variable, Expression> res = new IdentityHashMap<>(sources);
-                res.put(var, replacement);
-                return new Frame(this, res, this.fieldValues);
+                return new Frame(this, sources.plus(var, replacement), this.fieldValues);
             }
             return this;
         }
         
         private Frame replaceField(FieldReference fr, Expression replacement) {
-            MemberInfo mi = new MemberInfo(fr);
-            if(fieldValues.isEmpty()) {
-                return new Frame(this, this.sources, Collections.singletonMap(mi, replacement));
-            }
-            Expression expression = fieldValues.get(mi);
-            if (expression != replacement) {
-                if(expression != null && fieldValues.size() == 1) {
-                    return new Frame(this, this.sources, Collections.singletonMap(mi, replacement));
-                }
-                Map<MemberInfo, Expression> res = new HashMap<>(fieldValues);
-                res.put(mi, replacement);
-                return new Frame(this, this.sources, res);
-            }
-            return this;
+            PersistentMap<MemberInfo, Expression> res = fieldValues.plus(new MemberInfo(fr), replacement);
+            return res == fieldValues ? this : new Frame(this, this.sources, res);
+        }
+        
+        private Frame replaceFields(Map<MemberInfo, Expression> fields) {
+            PersistentMap<MemberInfo, Expression> res = fieldValues.plusAll(fields);
+            return res == fieldValues ? this : new Frame(this, this.sources, res);
         }
         
         private Frame deleteAllFields() {
             if(fieldValues.isEmpty())
                 return this;
-            Map<MemberInfo, Expression> res = new HashMap<>();
-            fieldValues.forEach((mi, expr) -> {
-                if(!fc.cf.isKnownFinal(mi)) {
-                    if(expr.getCode() == UPDATE_TYPE) {
-                        res.put(mi, expr);
-                    } else {
-                        res.put(mi, fc.makeUpdatedNode(expr));
-                    }
+            PersistentMap<MemberInfo, Expression> res = fieldValues;
+            for (Entry<MemberInfo, Expression> e : fieldValues.entrySet()) {
+                MemberInfo mi = e.getKey();
+                Expression expr = e.getValue();
+                if(fc.cf.isKnownFinal(mi)) {
+                    res = res.minus(mi);
+                } else if(expr.getCode() != UPDATE_TYPE) {
+                    res = res.plus(mi, fc.makeUpdatedNode(expr));
                 }
-            });
-            return new Frame(this, this.sources, Maps.compactify(res));
+            }
+            return new Frame(this, this.sources, res);
         }
         
         private Frame deleteFields() {
             if(fieldValues.isEmpty())
                 return this;
-            Map<MemberInfo, Expression> res = new HashMap<>();
-            fieldValues.forEach((mi, expr) -> {
-                if(expr.getCode() == UPDATE_TYPE || fc.cf.isKnownEffectivelyFinal(mi)) {
-                    res.put(mi, expr);
-                } else {
-                    res.put(mi, fc.makeUpdatedNode(expr));
+            PersistentMap<MemberInfo, Expression> res = fieldValues;
+            for (Entry<MemberInfo, Expression> e : fieldValues.entrySet()) {
+                MemberInfo mi = e.getKey();
+                Expression expr = e.getValue();
+                if(expr.getCode() != UPDATE_TYPE && !fc.cf.isKnownEffectivelyFinal(mi)) {
+                    res = res.plus(mi, fc.makeUpdatedNode(expr));
                 }
-            });
-            return new Frame(this, this.sources, Maps.compactify(res));
+            }
+            return new Frame(this, this.sources, res);
         }
     
         Frame replaceAll(UnaryOperator<Expression> op) {
-            Map<Variable, Expression> res = null;
+            PersistentMap<Variable, Expression> res = sources;
             for (Entry<Variable, Expression> e : sources.entrySet()) {
                 Expression expr = op.apply(e.getValue());
                 if (expr != e.getValue()) {
-                    if (res == null)
-                        res = new IdentityHashMap<>(sources);
-                    res.put(e.getKey(), expr);
+                    res = res.plus(e.getKey(), expr);
                 }
             }
-            return res == null ? this : new Frame(this, res, this.fieldValues);
+            return res == sources ? this : new Frame(this, res, this.fieldValues);
         }
     }
 
@@ -326,8 +305,8 @@ public class SourceAnnotator extends Annotator<Expression> {
         private final FrameContext fc;
         final Frame origFrame;
 
-        SourceDataflow(ClassFields cf, MethodDefinition md, Frame closure) {
-            this.fc = new FrameContext(md, cf);
+        SourceDataflow(ClassFields cf, MethodDefinition md, Frame closure, FactStore store) {
+            this.fc = new FrameContext(md, cf, store);
             this.origFrame = new Frame(fc, closure);
         }
         
@@ -337,12 +316,13 @@ public class SourceAnnotator extends Annotator<Expression> {
         }
 
         @Override
-        public Frame transferState(Frame target, Expression expr) {
+        public Frame transferState(Frame target, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             switch (expr.getCode()) {
             case Store: {
                 Variable var = ((Variable) expr.getOperand());
                 Expression arg = expr.getArguments().get(0);
-                Expression source = get(arg);
+                Expression source = get(slot.arg(0));
                 if(source == null)
                     source = arg;
                 return target.replace(var, source);
@@ -387,7 +367,8 @@ public class SourceAnnotator extends Annotator<Expression> {
             case InvokeStatic:
             case InvokeVirtual: {
                 MethodReference mr = (MethodReference) expr.getOperand();
-                if (!fc.cf.isSideEffectFree(mr, expr.getCode() == AstCode.InitObject || expr.getCode() == AstCode.InvokeSpecial)) {
+                if (expr.getCode() == AstCode.InitObject ? !fc.cf.isNewObjectSideEffectFree(mr)
+                    : !fc.cf.isSideEffectFree(mr, expr.getCode() == AstCode.InvokeSpecial)) {
                     target = target.replaceAll(src -> src.getCode() == AstCode.GetField || src.getCode() == AstCode.GetStatic
                             || src.getCode() == AstCode.LoadElement ? fc.makeUpdatedNode(src) : src);
                     // calling another constructor from current constructor will initialize all final fields
@@ -396,9 +377,7 @@ public class SourceAnnotator extends Annotator<Expression> {
                         Map<MemberInfo, Expression> ctorFields = fc.getCtorFields(mr);
                         if(ctorFields != null) {
                             if(!ctorFields.isEmpty()) {
-                                Map<MemberInfo,Expression> newFields = new HashMap<>(target.fieldValues);
-                                newFields.putAll(ctorFields);
-                                target = new Frame(target, target.sources, Maps.compactify(newFields));
+                                target = target.replaceFields(ctorFields);
                             }
                         }
                         else
@@ -431,12 +410,12 @@ public class SourceAnnotator extends Annotator<Expression> {
             }
         }
         @Override
-        public Frame transferExceptionalState(Frame src, Expression expr) {
-            return transferState(src, expr);
+        public Frame transferExceptionalState(Frame src, FactStore.Slot slot) {
+            return transferState(src, slot);
         }
         @Override
-        public TrueFalse<Frame> transferConditionalState(Frame src, Expression expr) {
-            return new TrueFalse<>(transferState(src, expr));
+        public TrueFalse<Frame> transferConditionalState(Frame src, FactStore.Slot slot) {
+            return new TrueFalse<>(transferState(src, slot));
         }
         @Override
         public Frame mergeStates(Frame s1, Frame s2) {
@@ -449,7 +428,8 @@ public class SourceAnnotator extends Annotator<Expression> {
         }
 
         @Override
-        public Expression makeFact(Frame state, Expression expr) {
+        public Expression makeFact(Frame state, FactStore.Slot slot) {
+            Expression expr = slot.expr;
             switch (expr.getCode()) {
             case Load: {
                 Variable var = ((Variable) expr.getOperand());
@@ -17,8 +17,10 @@ package one.util.huntbugs.flow;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -36,26 +38,86 @@ import com.strobel.decompiler.ast.Expression;
  *
  */
 public class ValuesFlow {
-    public static List<Expression> annotate(Context ctx, MethodDefinition md, ClassFields cf, CFG cfg) {
+    private static final int LIGHT_MAX_ITERATIONS = 2;
+    private static final Set<Fact> LIGHT_FACTS = EnumSet.of(Fact.CONST);
+
+    /**
+     * Annotates the method body with {@link Inf#SOURCE} and requested facts using the full analysis
+     * 
+     * @see #annotate(Context, MethodDefinition, ClassFields, CFG, Set, boolean)
+     */
+    public static List<Expression> annotate(Context ctx, MethodDefinition md, ClassFields cf, CFG cfg, Set<Fact> facts) {
+        return annotate(ctx, md, cf, cfg, facts, false);
+    }
+
+    /**
+     * Annotates the method body with {@link Inf#SOURCE} and requested facts
+     * 
+     * @param ctx analysis context
+     * @param md method to annotate
+     * @param cf fields of the declaring class
+     * @param cfg control flow graph of the method
+     * @param facts facts requested by active detectors (dependencies are added automatically)
+     * @param light if true, only {@link Inf#CONST} is computed in addition to {@link Inf#SOURCE} using sparse mode and
+     *        fewer dataflow iterations (used for the methods which are too large for the full analysis)
+     * @return list of expressions which represent method parameters or null if {@link Inf#SOURCE} is incomplete
+     */
+    public static List<Expression> annotate(Context ctx, MethodDefinition md, ClassFields cf, CFG cfg, Set<Fact> facts,
+            boolean light) {
         ctx.incStat("ValuesFlow");
-        Collection<Expression> origFrame = Inf.SOURCE.build(cf, cfg);
+        Set<Fact> required = Fact.withDependencies(facts);
+        int maxIter = ctx.getOptions().maxDataflowIterations;
+        if(light) {
+            required.retainAll(LIGHT_FACTS);
+            maxIter = Math.min(maxIter, LIGHT_MAX_ITERATIONS);
+        }
+        cfg.facts = FactStore.create(cfg);
+        Collection<Expression> origFrame = Inf.SOURCE.build(cf, cfg, maxIter);
         if(origFrame == null) {
             ctx.incStat("Inf.SOURCE.Incomplete/ValuesFlow");
         }
-        if(!Inf.CONST.build(cfg)) {
+        boolean sparse = (light || ctx.getOptions().sparseDataflow) && required.contains(Fact.CONST);
+        if(sparse) {
+            ctx.incStat("Sparse/ValuesFlow");
+        }
+        if(!required.contains(Fact.CONST)) {
+            ctx.incStat("Inf.CONST.Skipped/ValuesFlow");
+        } else if(!Inf.CONST.build(cfg, sparse, maxIter)) {
             ctx.incStat("Inf.CONST.Incomplete/ValuesFlow");
         }
-        if(!Inf.ETYPE.build(cfg)) {
+        if(!required.contains(Fact.ETYPE)) {
+            ctx.incStat("Inf.ETYPE.Skipped/ValuesFlow");
+        } else if(!Inf.ETYPE.build(cfg, maxIter)) {
             ctx.incStat("Inf.ETYPE.Incomplete/ValuesFlow");
         }
-        if(!Inf.NULL.build(cfg)) {
+        if(!required.contains(Fact.NULL)) {
+            ctx.incStat("Inf.NULL.Skipped/ValuesFlow");
+        } else if(!Inf.NULL.build(cfg, sparse, maxIter)) {
             ctx.incStat("Inf.NULL.Incomplete/ValuesFlow");
         }
-        cfg.forBodies((smd, smethod) -> Inf.PURITY.annotate(smethod, new FrameContext(smd, cf)));
-        cfg.forBodies((smd, smethod) -> Inf.BACKLINK.annotate(smethod));
+        if(!required.contains(Fact.PURITY)) {
+            ctx.incStat("Inf.PURITY.Skipped/ValuesFlow");
+        } else {
+            cfg.forBodies((smd, smethod) -> Inf.PURITY.annotate(smethod, new FrameContext(smd, cf, cfg.facts)));
+        }
         return origFrame == null ? null : new ArrayList<>(origFrame);
     }
 
+    /**
+     * Drops the facts computed for the method. Should be called when the
+     * method analysis is finished unless the method expressions may be
+     * referenced from other methods (like constructor field values).
+     * 
+     * @param cfg control flow graph previously passed to
+     *        {@link #annotate(Context, MethodDefinition, ClassFields, CFG, Set)}
+     */
+    public static void release(CFG cfg) {
+        if (cfg.facts != null) {
+            cfg.facts.release();
+            cfg.facts = null;
+        }
+    }
+
     public static <T> T reduce(Expression input, Function<Expression, T> mapper, BinaryOperator<T> reducer,
             Predicate<T> pred) {
         Expression source = getSource(input);
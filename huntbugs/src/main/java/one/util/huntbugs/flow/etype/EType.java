@@ -72,13 +72,16 @@ public interface EType {
     public static EType or(EType t1, EType t2) {
         if (t1 == null)
             return t2;
-        if (t2 == null)
+        if (t2 == null || t1 == t2)
             return t1;
         if (t1 == UNKNOWN || t2 == UNKNOWN)
             return UNKNOWN;
         if (t1.equals(t2))
             return t1;
         if (t1 instanceof OrType) {
+            // Merging the subset is the most common case in dataflow loops: no need to rebuild the type
+            if (t2 instanceof OrType && ((OrType) t1).types.containsAll(((OrType) t2).types))
+                return t1;
             return ((OrType)t1).appendAny(t2);
         }
         if (t2 instanceof OrType) {
@@ -39,6 +39,24 @@ public abstract class AbstractTypeDatabase<E> {
         // Default implementation is empty, should be subclasses
     }
     
+    /**
+     * @return false if the database is populated from the analyzed types only,
+     *         so the types which are read as dependencies are not visited.
+     *         Default implementation returns true.
+     */
+    protected boolean visitsDependencies() {
+        return true;
+    }
+    
+    /**
+     * Releases the resources held by the database. Called when the analysis
+     * is finished, so the database is not queried anymore. Default
+     * implementation does nothing.
+     */
+    protected void close() {
+        // Default implementation is empty
+    }
+    
     protected E getOrCreate(TypeReference ref) {
         return map.computeIfAbsent(ref.getInternalName(), fn);
     }
@@ -15,16 +15,21 @@
  */
 package one.util.huntbugs.registry;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
 
+import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.registry.anno.TypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabaseItem;
+import one.util.huntbugs.util.Symbols;
 
 /**
  * @author Tagir Valeev
@@ -33,6 +38,8 @@ import one.util.huntbugs.registry.anno.TypeDatabaseItem;
 public class DatabaseRegistry {
     Context ctx;
     Map<Class<?>, DatabaseInfo<?>> instances = new HashMap<>();
+    // Symbol table shared by all the databases of the analysis
+    private final Symbols symbols = new Symbols();
 
     static class DatabaseInfo<T> {
         final T db;
@@ -59,15 +66,28 @@ public class DatabaseRegistry {
         return getDatabaseInfo(clazz)::getDatabase;
     }
     
-    void visitType(TypeDefinition td) {
+    void visitType(TypeDefinition td, boolean dependency) {
         for(DatabaseInfo<?> dbi : instances.values()) {
             Object db = dbi.db;
-            if(db instanceof AbstractTypeDatabase) {
+            if(isVisited(db, dependency)) {
                 ((AbstractTypeDatabase<?>) db).visitType(td);
             }
         }
     }
 
+    private static boolean isVisited(Object db, boolean dependency) {
+        return db instanceof AbstractTypeDatabase
+            && (!dependency || ((AbstractTypeDatabase<?>) db).visitsDependencies());
+    }
+
+    void close() {
+        for(DatabaseInfo<?> dbi : instances.values()) {
+            if(dbi.db instanceof AbstractTypeDatabase) {
+                ((AbstractTypeDatabase<?>) dbi.db).close();
+            }
+        }
+    }
+
     private <T> DatabaseInfo<T> getDatabaseInfo(Class<T> clazz) {
         // Cannot use computeIfAbsent here as recursive update is unsafe
         @SuppressWarnings("unchecked")
@@ -93,8 +113,14 @@ public class DatabaseRegistry {
         }
         if (td != null) {
             try {
-                return new DatabaseInfo<>(clazz.newInstance(), null);
-            } catch (InstantiationException | IllegalAccessException e) {
+                Constructor<?> ctor = findConstructor(clazz);
+                Class<?>[] types = ctor.getParameterTypes();
+                Object[] args = new Object[types.length];
+                for (int i = 0; i < types.length; i++) {
+                    args[i] = types[i] == Symbols.class ? symbols : ctx.getOptions();
+                }
+                return new DatabaseInfo<>(clazz.cast(ctor.newInstance(args)), null);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
                 throw new IllegalStateException("Unable to instantiate database " + clazz, e);
             }
         }
@@ -103,4 +129,22 @@ public class DatabaseRegistry {
                 .parentDatabase());
         return new DatabaseInfo<>(null, parentInfo.db);
     }
+
+    /**
+     * Databases may accept the analysis options (to select the storage
+     * backend) and the shared symbol table in any order. The public
+     * constructor with the most such parameters is used.
+     */
+    private static Constructor<?> findConstructor(Class<?> clazz) {
+        Constructor<?> best = null;
+        for (Constructor<?> ctor : clazz.getConstructors()) {
+            boolean supported = Stream.of(ctor.getParameterTypes()).allMatch(
+                type -> type == AnalysisOptions.class || type == Symbols.class);
+            if (supported && (best == null || ctor.getParameterCount() > best.getParameterCount()))
+                best = ctor;
+        }
+        if (best == null)
+            throw new IllegalStateException("Database " + clazz + " has no suitable public constructor");
+        return best;
+    }
 }
@@ -21,25 +21,31 @@ import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 import com.strobel.assembler.metadata.FieldDefinition;
 import com.strobel.assembler.metadata.MethodDefinition;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
+import com.strobel.decompiler.ast.AstOptimizationStep;
 import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.ClassVisitor;
 import one.util.huntbugs.registry.anno.FieldVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.UsesAst;
+import one.util.huntbugs.registry.anno.UsesFacts;
 import one.util.huntbugs.registry.anno.VisitOrder;
 import one.util.huntbugs.util.NodeChain;
 import one.util.huntbugs.warning.WarningType;
@@ -68,6 +74,8 @@ public class Detector {
     final List<MethodHandle> methodAfterVisitors = new ArrayList<>();
     final List<MethodHandle> classVisitors = new ArrayList<>();
     final List<MethodHandle> classAfterVisitors = new ArrayList<>();
+    final Set<Fact> facts = EnumSet.noneOf(Fact.class);
+    final AstOptimizationStep astStep;
 
     class VisitorInfo {
         final VisitorType type;
@@ -153,6 +161,12 @@ public class Detector {
             throws IllegalAccessException {
         this.wts = Objects.requireNonNull(wts);
         this.clazz = Objects.requireNonNull(clazz);
+        UsesFacts uf = clazz.getAnnotation(UsesFacts.class);
+        if (uf != null) {
+            facts.addAll(Arrays.asList(uf.value()));
+        }
+        UsesAst ua = clazz.getAnnotation(UsesAst.class);
+        this.astStep = ua == null ? AstOptimizationStep.None : ua.value();
         for (Method m : clazz.getMethods()) {
             AstVisitor av = m.getAnnotation(AstVisitor.class);
             if (av != null) {
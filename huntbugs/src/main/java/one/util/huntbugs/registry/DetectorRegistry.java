@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -51,8 +52,10 @@ import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.ErrorMessage;
 import one.util.huntbugs.db.FieldStats;
 import one.util.huntbugs.db.MethodStats;
+import one.util.huntbugs.db.MethodSummaries;
 import one.util.huntbugs.flow.CFG;
 import one.util.huntbugs.flow.ClassFields;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.repo.Repository;
@@ -71,6 +74,9 @@ public class DetectorRegistry {
     private static final WarningType METHOD_TOO_LARGE = new WarningType("System", "MethodTooLarge", 30);
     private static final NumberRole BYTECODE_SIZE = NumberRole.forName("BYTECODE_SIZE");
     private static final NumberRole LIMIT = NumberRole.forName("LIMIT");
+    // The steps after this one only inline variables and refine the types,
+    // which changed no warnings on the reference jars
+    private static final AstOptimizationStep LIGHT_AST_STEP = AstOptimizationStep.InlineVariables3;
 
     static final String DETECTORS_PACKAGE = "one.util.huntbugs.detect";
 
@@ -82,6 +88,7 @@ public class DetectorRegistry {
     private final DatabaseRegistry databases;
     private final Function<TypeReference, FieldStats> fieldStatsDb;
     private final Function<TypeReference, MethodStats> methodStatsDb;
+    private final Function<TypeReference, MethodSummaries> methodSummariesDb;
 
     public static class SystemDetector {
     }
@@ -98,6 +105,7 @@ public class DetectorRegistry {
         }
         this.fieldStatsDb = databases.queryDatabase(FieldStats.class);
         this.methodStatsDb = databases.queryDatabase(MethodStats.class);
+        this.methodSummariesDb = databases.queryDatabase(MethodSummaries.class);
         init();
     }
 
@@ -137,6 +145,11 @@ public class DetectorRegistry {
         if (activeWts.isEmpty())
             return null;
         Detector detector = new Detector(wts, clazz, databases);
+        if (!ctx.getOptions().profile.getFacts().containsAll(detector.facts)
+            || detector.astStep.compareTo(ctx.getOptions().astOptimizationLimit) > 0) {
+            ctx.incStat("Profile.DisabledDetectors");
+            return null;
+        }
         activeWts.forEach(wt -> {
             typeToDetector.put(wt, detector);
             ctx.incStat("WarningTypes");
@@ -195,18 +208,26 @@ public class DetectorRegistry {
         return !databases.instances.isEmpty();
     }
 
-    public void populateDatabases(TypeDefinition type) {
-        databases.visitType(type);
+    public void populateDatabases(TypeDefinition type, boolean dependency) {
+        databases.visitType(type, dependency);
         for (TypeDefinition subType : type.getDeclaredTypes()) {
-            populateDatabases(subType);
+            populateDatabases(subType, dependency);
         }
     }
 
+    /**
+     * Releases the databases when the analysis is finished
+     */
+    public void closeDatabases() {
+        databases.close();
+    }
+
     public void analyzeClass(TypeDefinition type) {
         ctx.incStat("TotalClasses");
         
         ClassData cdata = new ClassData(type);
-        ClassFields cf = new ClassFields(type, fieldStatsDb.apply(type), methodStatsDb.apply(type));
+        ClassFields cf = new ClassFields(type, fieldStatsDb.apply(type), methodStatsDb.apply(type),
+            methodSummariesDb.apply(type));
         
         List<MethodDefinition> declMethods = new ArrayList<>(type.getDeclaredMethods());
         sortMethods(declMethods);
@@ -231,25 +252,52 @@ public class DetectorRegistry {
 
             MethodBody body = md.getBody();
             if (body != null) {
-                if (body.getCodeSize() > ctx.getOptions().maxMethodSize) {
-                    if (systemDetector != null) {
-                        MethodContext mc = new ClassContext(ctx, cdata, systemDetector).forMethod(mdata);
-                        mc.report(METHOD_TOO_LARGE.getName(), 0, BYTECODE_SIZE.create(body.getCodeSize()), LIMIT.create(
-                            ctx.getOptions().maxMethodSize));
-                        mc.finalizeMethod();
-                    }
-                } else if (!mcs.get(true).isEmpty()) {
+                ctx.incStat("Methods");
+                // Methods which are too large for the full analysis are analyzed in the light tier: the AST
+                // optimization stops before LIGHT_AST_STEP and no dataflow facts except constants are computed,
+                // so they are never considered as fully analyzed
+                boolean light = body.getCodeSize() > ctx.getOptions().maxMethodSize;
+                if (light && systemDetector != null) {
+                    // The method analyzed in the light tier still gets some checks, so the warning is less important
+                    MethodContext mc = new ClassContext(ctx, cdata, systemDetector).forMethod(mdata);
+                    mc.report(METHOD_TOO_LARGE.getName(), 20, BYTECODE_SIZE.create(body.getCodeSize()),
+                        LIMIT.create(ctx.getOptions().maxMethodSize));
+                    mc.finalizeMethod();
+                }
+                if (!mcs.get(true).isEmpty()) {
+                    ctx.incStat(light ? "Tier.Light/Methods" : "Tier.Full/Methods");
                     final DecompilerContext context = new DecompilerContext();
 
                     context.setCurrentMethod(md);
                     context.setCurrentType(type);
                     Block methodAst = new Block();
                     try {
+                        List<MethodContext> active = mcs.get(true);
+                        AstOptimizationStep astStep = getAstStep(active);
+                        if (light && astStep.compareTo(LIGHT_AST_STEP) > 0) {
+                            astStep = LIGHT_AST_STEP;
+                        }
+                        long start = System.nanoTime();
                         methodAst.getBody().addAll(AstBuilder.build(body, true, context));
-                        AstOptimizer.optimize(context, methodAst, AstOptimizationStep.None);
+                        long built = System.nanoTime();
+                        AstOptimizer.optimize(context, methodAst, astStep);
+                        long optimized = System.nanoTime();
                         mdata.cfg = CFG.build(md, methodAst);
-                        mdata.origParams = ValuesFlow.annotate(ctx, md, cf, mdata.cfg);
-                        mdata.fullyAnalyzed = true;
+                        long cfgBuilt = System.nanoTime();
+                        mdata.origParams = ValuesFlow.annotate(ctx, md, cf, mdata.cfg, getFacts(active), light);
+                        long end = System.nanoTime();
+                        ctx.addStat("Time.AstBuilder.us", (built - start) / 1000);
+                        ctx.addStat("Time.AstOptimizer.us", (optimized - built) / 1000);
+                        ctx.addStat("Time.CFG.us", (cfgBuilt - optimized) / 1000);
+                        ctx.addStat("Time.ValuesFlow.us", (end - cfgBuilt) / 1000);
+                        if (astStep != AstOptimizationStep.None) {
+                            ctx.incStat("PartialAst/Methods");
+                        }
+                        int sample = ctx.getOptions().astStepTiming;
+                        if (sample > 0 && ctx.getStat("Methods") % sample == 0) {
+                            timeAstSteps(type, md, body, astStep);
+                        }
+                        mdata.fullyAnalyzed = !light;
                     } catch (Throwable t) {
                         ctx.addError(new ErrorMessage(null, type.getFullName(), md.getFullName(), md.getSignature(),
                                 -1, t));
@@ -266,6 +314,10 @@ public class DetectorRegistry {
             for (MethodContext mc : mcs.get(false)) {
                 mc.finalizeMethod();
             }
+            if (mdata.cfg != null && !md.isConstructor() && !md.isTypeInitializer()) {
+                // Constructor expressions are referenced from ClassFields, so keep their facts till the end of class
+                ValuesFlow.release(mdata.cfg);
+            }
         }
         for(FieldData fdata : fields) {
             for(ClassContext cc : ccs) {
@@ -282,6 +334,51 @@ public class DetectorRegistry {
         }
     }
 
+    /**
+     * @return the latest AST optimization step the active detectors need: the
+     *         optimizer stops before it
+     */
+    private static AstOptimizationStep getAstStep(List<MethodContext> mcs) {
+        AstOptimizationStep step = AstOptimizationStep.values()[0];
+        for (MethodContext mc : mcs) {
+            if (mc.detector.astStep.compareTo(step) > 0) {
+                step = mc.detector.astStep;
+            }
+        }
+        return step;
+    }
+
+    /**
+     * Measures the AST optimization steps separately. As the optimizer cannot
+     * be paused, the method AST is rebuilt and optimized once per step with
+     * increasing stop step, so this is used on sampled methods for
+     * diagnostics only.
+     */
+    private void timeAstSteps(TypeDefinition type, MethodDefinition md, MethodBody body, AstOptimizationStep lastStep) {
+        long prev = 0;
+        AstOptimizationStep[] steps = AstOptimizationStep.values();
+        for (int i = 1; i < steps.length && steps[i - 1] != lastStep; i++) {
+            DecompilerContext context = new DecompilerContext();
+            context.setCurrentMethod(md);
+            context.setCurrentType(type);
+            Block methodAst = new Block();
+            methodAst.getBody().addAll(AstBuilder.build(body, true, context));
+            long start = System.nanoTime();
+            AstOptimizer.optimize(context, methodAst, steps[i]);
+            long time = System.nanoTime() - start;
+            ctx.addStat("AstStep." + steps[i - 1] + ".us", Math.max(0, time - prev) / 1000);
+            prev = time;
+        }
+    }
+
+    private static Set<Fact> getFacts(List<MethodContext> mcs) {
+        Set<Fact> facts = EnumSet.noneOf(Fact.class);
+        for (MethodContext mc : mcs) {
+            facts.addAll(mc.detector.facts);
+        }
+        return facts;
+    }
+
     private void sortMethods(List<MethodDefinition> declMethods) {
         declMethods.sort(Comparator.comparingInt(md ->
                 md.isTypeInitializer() ? 0 :
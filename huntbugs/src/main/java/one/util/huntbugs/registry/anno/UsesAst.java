@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.registry.anno;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.strobel.decompiler.ast.AstOptimizationStep;
+
+/**
+ * Minimal AST shape the detector relies on: the method AST optimization may be stopped before the specified step if
+ * no other active detector needs it. Note that unoptimized AST may lack inferred types, contain gotos instead of
+ * loops and conditions and keep temporary variables not inlined.
+ *
+ * <p>
+ * Detector without this annotation needs fully optimized AST (as if {@link AstOptimizationStep#None} is specified).
+ * Methods analyzed in the light tier are never optimized past {@link AstOptimizationStep#InlineVariables3}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface UsesAst {
+    AstOptimizationStep value();
+}
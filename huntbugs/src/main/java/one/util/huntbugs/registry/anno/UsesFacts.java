@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.registry.anno;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import one.util.huntbugs.flow.Fact;
+import one.util.huntbugs.flow.Inf;
+
+/**
+ * Facts (see {@link Inf}) the detector reads, either directly or via utility methods. Only the facts required by
+ * detectors active for the given method are computed, so reading an undeclared fact yields an unknown value.
+ *
+ * <p>
+ * Detector without this annotation does not read any optional facts. {@link Inf#SOURCE} and {@link Inf#BACKLINK} are
+ * always available.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface UsesFacts {
+    Fact[] value();
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Repository of the classes inside the archive which may contain other
+ * archives: Spring Boot fat jar (application classes in
+ * {@code BOOT-INF/classes}, libraries in {@code BOOT-INF/lib}), WAR
+ * ({@code WEB-INF/classes} and {@code WEB-INF/lib}) or EAR (modules in the
+ * archive root, libraries in {@code lib}). Application classes and modules
+ * are visited, while the libraries are only used to load the dependencies.
+ * Stored nested archives are read in place; compressed ones are inflated
+ * into memory. No temporary files are created.
+ * 
+ * @author lan
+ */
+public class ArchiveRepository implements Repository {
+    private static final String[] CLASS_PREFIXES = { "BOOT-INF/classes/", "WEB-INF/classes/" };
+    private static final String[] LIB_PREFIXES = { "BOOT-INF/lib/", "WEB-INF/lib/", "lib/" };
+
+    private final ZipIndex archive;
+    private final String prefix;
+    private Set<String> packages;
+
+    private ArchiveRepository(ZipIndex archive, String prefix) {
+        this.archive = archive;
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param path archive to read
+     * @return repository of the archive classes ({@link JarRepository} if the
+     *         archive has no nested archives)
+     * @throws IOException if archive cannot be read
+     */
+    public static Repository open(Path path) throws IOException {
+        // the channel stays open until the repository is closed: the archive
+        // is read in place
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ZipIndex archive = new ZipIndex(ZipIndex.Source.of(channel));
+            if (getClassPrefix(archive).isEmpty()
+                && archive.entries().stream().noneMatch(e -> isModule(e, "") || isLibrary(e))) {
+                channel.close();
+                return new JarRepository(new JarFile(path.toFile()));
+            }
+            return create(archive);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param archive archive to read the classes from
+     * @param prefix path of the classes root inside the archive (like
+     *        "classes/"), nested archives are ignored
+     * @return repository of the archive classes
+     */
+    static Repository classes(ZipIndex archive, String prefix) {
+        return new ArchiveRepository(archive, prefix);
+    }
+
+    private static Repository create(ZipIndex archive) throws IOException {
+        String prefix = getClassPrefix(archive);
+        List<Repository> repos = new ArrayList<>();
+        repos.add(new ArchiveRepository(archive, prefix));
+        List<Repository> libs = new ArrayList<>();
+        for (ZipIndex.Entry entry : archive.entries()) {
+            boolean isModule = isModule(entry, prefix);
+            if (!isModule && !isLibrary(entry))
+                continue;
+            ZipIndex.Source nested = entry.isStored() ? archive.open(entry) : ZipIndex.Source.of(archive.read(entry));
+            Repository repo = create(new ZipIndex(nested));
+            if (isModule)
+                repos.add(repo);
+            else
+                libs.add(repo);
+        }
+        if (!libs.isEmpty())
+            repos.add(new AuxRepository(libs));
+        return repos.size() == 1 ? repos.get(0) : new CompositeRepository(repos);
+    }
+
+    private static String getClassPrefix(ZipIndex archive) {
+        for (String prefix : CLASS_PREFIXES) {
+            if (archive.entries().stream().anyMatch(e -> e.name.startsWith(prefix)))
+                return prefix;
+        }
+        return "";
+    }
+
+    private static boolean isArchive(ZipIndex.Entry entry) {
+        return !entry.isDirectory() && (entry.name.endsWith(".jar") || entry.name.endsWith(".war"));
+    }
+
+    private static boolean isModule(ZipIndex.Entry entry, String classPrefix) {
+        // EAR modules
+        return classPrefix.isEmpty() && isArchive(entry) && entry.name.indexOf('/') < 0;
+    }
+
+    private static boolean isLibrary(ZipIndex.Entry entry) {
+        if (!isArchive(entry))
+            return false;
+        for (String prefix : LIB_PREFIXES) {
+            if (entry.name.startsWith(prefix) && entry.name.indexOf('/', prefix.length()) < 0)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public ITypeLoader createTypeLoader() {
+        return (internalName, buffer) -> {
+            ZipIndex.Entry entry = archive.getEntry(prefix + internalName + ".class");
+            if (entry == null)
+                return false;
+            byte[] data;
+            try {
+                data = archive.read(entry);
+            } catch (IOException e) {
+                return false;
+            }
+            buffer.reset(data.length);
+            buffer.putByteArray(data, 0, data.length);
+            buffer.position(0);
+            return true;
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            archive.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized Set<String> getPackages() {
+        if (packages == null) {
+            packages = archive.entries().stream().map(e -> e.name).filter(
+                name -> name.startsWith(prefix) && name.endsWith(".class")).map(
+                name -> IndexedTypeLoader.getPackage(name.substring(prefix.length()))).collect(Collectors.toSet());
+        }
+        return packages;
+    }
+
+    @Override
+    public void visit(String rootPackage, RepositoryVisitor visitor) {
+        String skipPrefix = null;
+        for (ZipIndex.Entry entry : archive.entries()) {
+            if (!entry.name.startsWith(prefix))
+                continue;
+            String name = entry.name.substring(prefix.length());
+            if (name.isEmpty() || !rootPackage.isEmpty() && !name.startsWith(rootPackage + "/")
+                && !name.equals(rootPackage))
+                continue;
+            if (skipPrefix != null) {
+                if (name.startsWith(skipPrefix))
+                    continue;
+                skipPrefix = null;
+            }
+            if (entry.isDirectory()) {
+                if (!visitor.visitPackage(name)) {
+                    skipPrefix = name + "/";
+                }
+            } else if (name.endsWith(".class")) {
+                String className = name.substring(0, name.length() - ".class".length());
+                if (!className.contains("$"))
+                    visitor.visitClass(className);
+            }
+        }
+    }
+}
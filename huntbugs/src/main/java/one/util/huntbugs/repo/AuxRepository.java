@@ -15,6 +15,9 @@
  */
 package one.util.huntbugs.repo;
 
+import java.util.List;
+import java.util.Set;
+
 import com.strobel.assembler.metadata.ITypeLoader;
 
 /**
@@ -25,9 +28,23 @@ import com.strobel.assembler.metadata.ITypeLoader;
  */
 public class AuxRepository implements Repository {
     private final ITypeLoader loader;
+    private final Set<String> packages;
+    private final Repository repository;
 
     public AuxRepository(ITypeLoader loader) {
         this.loader = loader;
+        this.packages = null;
+        this.repository = null;
+    }
+
+    /**
+     * @param repos repositories to load the classes from (they are not visited)
+     */
+    public AuxRepository(List<Repository> repos) {
+        CompositeRepository repo = new CompositeRepository(repos);
+        this.loader = repo.createTypeLoader();
+        this.packages = repo.getPackages();
+        this.repository = repo;
     }
 
     @Override
@@ -35,6 +52,17 @@ public class AuxRepository implements Repository {
         return loader;
     }
 
+    @Override
+    public Set<String> getPackages() {
+        return packages;
+    }
+
+    @Override
+    public void close() {
+        if (repository != null)
+            repository.close();
+    }
+
     @Override
     public void visit(String rootPackage, RepositoryVisitor visitor) {
     }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Type loader which keeps the raw class file bytes in the bounded LRU cache.
+ * The cache belongs to single analysis, so the same class read by several
+ * metadata systems (after flush or to load the method bodies lazily) is
+ * inflated only once. The bound is the total size of cached class files. The
+ * cache must be cleared when the analysis is finished.
+ * 
+ * <p>
+ * The repository loaders are not required to be thread-safe, so the calls of
+ * the wrapped loader are serialized: a cache miss of the analysis waits while
+ * {@link ClassPrefetcher} reads another class. Only the loader call itself is
+ * done under the lock; the cache lookups, copying and eviction are not, so
+ * the prefetcher overlaps with the analysis work rather than with its reads.
+ * 
+ * @author lan
+ */
+public final class ClassBytesCache implements ITypeLoader {
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    private final ITypeLoader loader;
+    // guards the wrapped loader calls only
+    private final Object loadLock = new Object();
+    private final long maxBytes;
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * @param loader loader to read the classes which are not cached
+     * @param maxBytes cache bound in bytes, zero disables the caching
+     */
+    public ClassBytesCache(ITypeLoader loader, long maxBytes) {
+        this.loader = loader;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public boolean tryLoadType(String internalName, Buffer buffer) {
+        lookups.increment();
+        byte[] data = get(internalName);
+        if (data == null) {
+            synchronized (loadLock) {
+                // the class might be read by ClassPrefetcher while we waited
+                data = get(internalName);
+                if (data == null && !loader.tryLoadType(internalName, buffer))
+                    return false;
+            }
+            if (data == null) {
+                if (maxBytes > 0)
+                    put(internalName, Arrays.copyOf(buffer.array(), buffer.size()));
+                return true;
+            }
+        }
+        hits.increment();
+        savedBytes.add(data.length);
+        buffer.reset(data.length);
+        buffer.putByteArray(data, 0, data.length);
+        buffer.position(0);
+        return true;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return total size of the class files served from the cache
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * @return total size of the cached class files
+     */
+    public synchronized long getCachedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Removes all the cached classes
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    private synchronized byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, byte[] data) {
+        if (data.length > maxBytes)
+            return;
+        byte[] old = entries.put(key, data);
+        bytes += data.length - (old == null ? 0 : old.length);
+        Iterator<byte[]> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().length;
+            it.remove();
+        }
+    }
+}
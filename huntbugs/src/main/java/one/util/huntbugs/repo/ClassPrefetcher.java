@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Reads the classes which are about to be analyzed in the background thread,
+ * so their bytes are already in {@link ClassBytesCache} when the analysis
+ * needs them. The prefetcher stays at most given number of classes ahead of
+ * the analysis position reported via {@link #advance(int)}. Load failures are
+ * ignored: the analysis will report them when it reads the class itself.
+ * 
+ * @author lan
+ */
+public class ClassPrefetcher implements AutoCloseable {
+    private final ITypeLoader loader;
+    private final List<String> classes;
+    private final int window;
+    private final Thread thread;
+    private volatile int position;
+    private volatile boolean closed;
+    private int count;
+
+    /**
+     * @param loader caching loader to read the classes with
+     * @param classes internal names of the classes in the analysis order
+     * @param window how many classes to read ahead, zero disables the
+     *        prefetching
+     */
+    public ClassPrefetcher(ITypeLoader loader, Collection<String> classes, int window) {
+        this.loader = loader;
+        this.classes = new ArrayList<>(classes);
+        this.window = window;
+        if (window > 0 && !this.classes.isEmpty()) {
+            thread = new Thread(this::run, "HuntBugs prefetcher");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            thread = null;
+        }
+    }
+
+    /**
+     * @param position number of classes already requested by the analysis
+     */
+    public void advance(int position) {
+        this.position = position;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return number of classes read by the prefetcher (valid after
+     *         {@link #close()})
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        if (thread == null)
+            return;
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        Buffer buffer = new Buffer();
+        for (int i = 0; i < classes.size(); i++) {
+            while (!closed && i >= position + window) {
+                LockSupport.park(this);
+            }
+            if (closed)
+                return;
+            if (i < position)
+                continue;
+            try {
+                loader.tryLoadType(classes.get(i), buffer);
+                count++;
+            } catch (RuntimeException e) {
+                // ignore
+            }
+        }
+    }
+}
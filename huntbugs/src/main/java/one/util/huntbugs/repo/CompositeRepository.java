@@ -15,9 +15,11 @@
  */
 package one.util.huntbugs.repo;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import com.strobel.assembler.metadata.CompositeTypeLoader;
+import java.util.Set;
+
 import com.strobel.assembler.metadata.ITypeLoader;
 
 /**
@@ -33,7 +35,19 @@ public class CompositeRepository implements Repository {
 
     @Override
     public ITypeLoader createTypeLoader() {
-        return new CompositeTypeLoader(repos.stream().map(Repository::createTypeLoader).toArray(ITypeLoader[]::new));
+        return new IndexedTypeLoader(repos);
+    }
+
+    @Override
+    public Set<String> getPackages() {
+        Set<String> packages = new HashSet<>();
+        for (Repository repo : repos) {
+            Set<String> repoPackages = repo.getPackages();
+            if (repoPackages == null)
+                return null;
+            packages.addAll(repoPackages);
+        }
+        return packages;
     }
 
     @Override
@@ -42,4 +56,25 @@ public class CompositeRepository implements Repository {
             repo.visit(rootPackage, visitor);
     }
 
+    /**
+     * Closes all the repositories even if some of them fail to close. The
+     * first failure is thrown, the subsequent ones are suppressed.
+     */
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        for(Repository repo : repos) {
+            try {
+                repo.close();
+            } catch (RuntimeException e) {
+                if (error == null)
+                    error = e;
+                else
+                    error.addSuppressed(e);
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
 }
@@ -16,12 +16,23 @@
 package one.util.huntbugs.repo;
 
 import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.strobel.assembler.metadata.ClasspathTypeLoader;
 import com.strobel.assembler.metadata.ITypeLoader;
@@ -31,7 +42,14 @@ import com.strobel.assembler.metadata.ITypeLoader;
  *
  */
 public class DirRepository implements Repository {
+    private static final ExecutorService listingExecutor = Executors.newFixedThreadPool(4, r -> {
+        Thread thread = new Thread(r, "HuntBugs directory listing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final Path root;
+    private Set<String> packages;
 
     public DirRepository(Path root) {
         this.root = root;
@@ -42,45 +60,130 @@ public class DirRepository implements Repository {
         return new ClasspathTypeLoader(root.toString());
     }
 
+    @Override
+    public synchronized Set<String> getPackages() {
+        if (packages == null) {
+            Map<Path, Listing> listings = listTree(root);
+            if (listings == null)
+                return null;
+            Set<String> result = new HashSet<>();
+            listings.forEach((dir, listing) -> {
+                if (listing.files.stream().anyMatch(file -> file.toString().endsWith(".class")))
+                    result.add(packageName(dir));
+            });
+            packages = result;
+        }
+        return packages;
+    }
+
     @Override
     public void visit(String rootPackage, RepositoryVisitor visitor) {
         Path path = root.resolve(rootPackage);
-        if(!Files.isDirectory(path))
+        if(!Files.isDirectory(path) || !visitor.visitPackage(packageName(path)))
             return;
-        try {
-            Files.walkFileTree(path, new FileVisitor<Path>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    String pkg = root.relativize(dir).toString().replace('\\', '/');
-                    if(visitor.visitPackage(pkg))
-                        return FileVisitResult.CONTINUE;
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
+        visit(list(path), visitor);
+    }
 
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    if(file.getFileName().toString().endsWith(".class")) {
-                        String baseName = root.relativize(file).toString();
-                        if(!baseName.contains("$")) {
-                            baseName = baseName.substring(0, baseName.length() - ".class".length()).replace('\\', '/');
-                            visitor.visitClass(baseName);
-                        }
-                    }
-                    return FileVisitResult.CONTINUE;
+    /**
+     * Visits the listed package. The subpackages are passed to the visitor
+     * first, so only the accepted ones are listed (in parallel, while the
+     * classes are visited).
+     */
+    private void visit(CompletableFuture<Listing> future, RepositoryVisitor visitor) {
+        Listing listing = future.join();
+        if(listing == null)
+            return;
+        List<CompletableFuture<Listing>> subPackages = new ArrayList<>();
+        for(Path dir : listing.dirs) {
+            if(visitor.visitPackage(packageName(dir)))
+                subPackages.add(list(dir));
+        }
+        for(Path file : listing.files) {
+            if(file.getFileName().toString().endsWith(".class")) {
+                String baseName = root.relativize(file).toString();
+                if(!baseName.contains("$")) {
+                    baseName = baseName.substring(0, baseName.length() - ".class".length()).replace('\\', '/');
+                    visitor.visitClass(baseName);
                 }
+            }
+        }
+        for(CompletableFuture<Listing> subPackage : subPackages) {
+            visit(subPackage, visitor);
+        }
+    }
 
-                @Override
-                public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-                    return FileVisitResult.CONTINUE;
-                }
+    private String packageName(Path dir) {
+        return root.relativize(dir).toString().replace('\\', '/');
+    }
 
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                    return FileVisitResult.CONTINUE;
-                }
-            });
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    /**
+     * Directory entries sorted by name. Symbolic links to directories are
+     * listed as files.
+     */
+    static final class Listing {
+        final List<Path> dirs = new ArrayList<>();
+        final List<Path> files = new ArrayList<>();
+    }
+
+    private static CompletableFuture<Listing> list(Path dir) {
+        return CompletableFuture.supplyAsync(() -> listDir(dir), listingExecutor);
+    }
+
+    /**
+     * @return listing of the directory or null if it cannot be read
+     */
+    private static Listing listDir(Path dir) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            List<Path> entries = new ArrayList<>();
+            stream.forEach(entries::add);
+            Collections.sort(entries);
+            Listing listing = new Listing();
+            for(Path entry : entries) {
+                (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS) ? listing.dirs : listing.files).add(entry);
+            }
+            return listing;
+        } catch (IOException | DirectoryIteratorException e) {
+            return null;
         }
     }
+
+    /**
+     * Lists the directory tree, the subdirectories are listed in parallel
+     * (listing is slow on network file systems). Symbolic links to
+     * directories are not followed.
+     * 
+     * @param dir root of the tree
+     * @return map of every directory of the tree to its listing or null if
+     *         some directory cannot be read
+     */
+    private static Map<Path, Listing> listTree(Path dir) {
+        Map<Path, Listing> listings = new ConcurrentHashMap<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicInteger pending = new AtomicInteger();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        listTree(dir, listings, failed, pending, done);
+        done.join();
+        return failed.get() ? null : listings;
+    }
+
+    private static void listTree(Path dir, Map<Path, Listing> listings, AtomicBoolean failed, AtomicInteger pending,
+            CompletableFuture<Void> done) {
+        pending.incrementAndGet();
+        listingExecutor.execute(() -> {
+            try {
+                Listing listing = listDir(dir);
+                if(listing == null) {
+                    failed.set(true);
+                    return;
+                }
+                for(Path subDir : listing.dirs) {
+                    listTree(subDir, listings, failed, pending, done);
+                }
+                listings.put(dir, listing);
+            } finally {
+                if(pending.decrementAndGet() == 0)
+                    done.complete(null);
+            }
+        });
+    }
 }
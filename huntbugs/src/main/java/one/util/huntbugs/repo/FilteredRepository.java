@@ -15,6 +15,7 @@
  */
 package one.util.huntbugs.repo;
 
+import java.util.Set;
 import java.util.function.Predicate;
 
 import com.strobel.assembler.metadata.ITypeLoader;
@@ -43,6 +44,16 @@ public class FilteredRepository implements Repository {
         return repository.createTypeLoader();
     }
 
+    @Override
+    public Set<String> getPackages() {
+        return repository.getPackages();
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+
     @Override
     public void visit(String rootPackage, RepositoryVisitor visitor) {
         repository.visit(rootPackage, new RepositoryVisitor() {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Type loader of several repositories which asks only the repositories
+ * containing the package of requested class. The repositories which cannot
+ * list their packages (see {@link Repository#getPackages()}) are asked for
+ * every class. The classpath order is preserved: if several repositories
+ * contain the same class, the first one wins. The classes which were not
+ * found are remembered and never looked up again.
+ * 
+ * @author lan
+ */
+public class IndexedTypeLoader implements ITypeLoader {
+    private final Map<String, ITypeLoader[]> byPackage = new HashMap<>();
+    private final ITypeLoader[] unindexed;
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    public IndexedTypeLoader(List<Repository> repos) {
+        ITypeLoader[] loaders = new ITypeLoader[repos.size()];
+        Map<String, List<Integer>> indices = new HashMap<>();
+        List<Integer> unindexedIndices = new ArrayList<>();
+        for (int i = 0; i < loaders.length; i++) {
+            Repository repo = repos.get(i);
+            loaders[i] = repo.createTypeLoader();
+            Set<String> packages = repo.getPackages();
+            if (packages == null) {
+                unindexedIndices.add(i);
+            } else {
+                for (String pkg : packages) {
+                    indices.computeIfAbsent(pkg, k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+        unindexed = unindexedIndices.stream().map(i -> loaders[i]).toArray(ITypeLoader[]::new);
+        indices.forEach((pkg, list) -> {
+            list.addAll(unindexedIndices);
+            byPackage.put(pkg, list.stream().sorted().distinct().map(i -> loaders[i]).toArray(ITypeLoader[]::new));
+        });
+    }
+
+    /**
+     * @param internalName internal name of the class (like "a/b/C")
+     * @return internal name of the class package (like "a/b")
+     */
+    static String getPackage(String internalName) {
+        int pos = internalName.lastIndexOf('/');
+        return pos < 0 ? "" : internalName.substring(0, pos);
+    }
+
+    @Override
+    public boolean tryLoadType(String internalName, Buffer buffer) {
+        if (missing.contains(internalName))
+            return false;
+        for (ITypeLoader loader : byPackage.getOrDefault(getPackage(internalName), unindexed)) {
+            if (loader.tryLoadType(internalName, buffer))
+                return true;
+        }
+        missing.add(internalName);
+        return false;
+    }
+}
@@ -15,9 +15,13 @@
  */
 package one.util.huntbugs.repo;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Enumeration;
+import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
 
 import com.strobel.assembler.metadata.ITypeLoader;
 import com.strobel.assembler.metadata.JarTypeLoader;
@@ -28,6 +32,7 @@ import com.strobel.assembler.metadata.JarTypeLoader;
  */
 public class JarRepository implements Repository {
     private final JarFile file;
+    private Set<String> packages;
 
     public JarRepository(JarFile file) {
         this.file = file;
@@ -38,6 +43,24 @@ public class JarRepository implements Repository {
         return new JarTypeLoader(file);
     }
 
+    @Override
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized Set<String> getPackages() {
+        if (packages == null) {
+            packages = file.stream().map(JarEntry::getName).filter(name -> name.endsWith(".class"))
+                    .map(IndexedTypeLoader::getPackage).collect(Collectors.toSet());
+        }
+        return packages;
+    }
+
     @Override
     public void visit(String rootPackage, RepositoryVisitor visitor) {
         Enumeration<JarEntry> entries = file.entries();
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Repository of the JDK classes which are used to resolve the dependencies
+ * (never visited). Depending on the JDK layout, the classes are read from the
+ * {@code jrt:/} file system (JDK 9+ runtime image, even when running on JDK
+ * 8), from {@code jmods} or from the boot class path jars (JDK 8). The
+ * repository is opened for a single analysis and holds the JDK files open
+ * until it's closed.
+ * 
+ * @author lan
+ */
+public class JdkRepository implements Repository {
+    private final FileSystem fs;
+    // whether the file system was created for this repository
+    private final boolean ownFs;
+    private final Path modules;
+    // internal package name -> modules containing it
+    private final Map<String, List<String>> packageModules = new HashMap<>();
+
+    private JdkRepository(FileSystem fs, boolean ownFs) throws IOException {
+        this.fs = fs;
+        this.ownFs = ownFs;
+        this.modules = fs.getPath("/modules");
+        try (DirectoryStream<Path> packages = Files.newDirectoryStream(fs.getPath("/packages"))) {
+            for (Path pkg : packages) {
+                List<String> moduleNames = new ArrayList<>();
+                try (DirectoryStream<Path> links = Files.newDirectoryStream(pkg)) {
+                    for (Path link : links) {
+                        moduleNames.add(link.getFileName().toString());
+                    }
+                }
+                Collections.sort(moduleNames);
+                packageModules.put(pkg.getFileName().toString().replace('.', '/'), moduleNames);
+            }
+        }
+    }
+
+    /**
+     * @param jdkHome JDK home directory or null to use the JDK of the current
+     *        JVM
+     * @return repository of the JDK classes which must be closed by the
+     *         caller
+     * @throws IOException if JDK classes cannot be read
+     */
+    public static Repository forHome(String jdkHome) throws IOException {
+        if (jdkHome == null) {
+            String bootPath = System.getProperty("sun.boot.class.path");
+            if (bootPath != null)
+                return classPath(Stream.of(bootPath.split(File.pathSeparator)).map(Paths::get).collect(
+                    Collectors.toList()));
+            return new JdkRepository(FileSystems.getFileSystem(URI.create("jrt:/")), false);
+        }
+        Path home = Paths.get(jdkHome);
+        Repository repo = openHome(home);
+        Set<String> packages = repo.getPackages();
+        if (packages != null && !packages.contains("java/lang")) {
+            repo.close();
+            throw new IOException("No JDK classes found");
+        }
+        return repo;
+    }
+
+    private static Repository openHome(Path home) throws IOException {
+        if (Files.isRegularFile(home.resolve("lib/modules"))) {
+            URL jrtFs = home.resolve("lib/jrt-fs.jar").toUri().toURL();
+            FileSystem fs = FileSystems.newFileSystem(URI.create("jrt:/"), Collections.singletonMap("java.home",
+                home.toString()), new URLClassLoader(new URL[] { jrtFs }));
+            try {
+                return new JdkRepository(fs, true);
+            } catch (IOException | RuntimeException e) {
+                fs.close();
+                throw e;
+            }
+        }
+        Path jmods = home.resolve("jmods");
+        if (Files.isDirectory(jmods)) {
+            List<Repository> repos = new ArrayList<>();
+            try (Stream<Path> files = Files.list(jmods)) {
+                for (Path jmod : files.filter(f -> f.toString().endsWith(".jmod")).sorted().collect(
+                    Collectors.toList())) {
+                    repos.add(openJmod(jmod));
+                }
+            } catch (IOException | RuntimeException e) {
+                new CompositeRepository(repos).close();
+                throw e;
+            }
+            return new AuxRepository(repos);
+        }
+        Path lib = Files.isDirectory(home.resolve("jre/lib")) ? home.resolve("jre/lib") : home.resolve("lib");
+        try (Stream<Path> files = Files.list(lib)) {
+            return classPath(files.filter(f -> f.toString().endsWith(".jar")).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    private static Repository classPath(List<Path> paths) throws IOException {
+        List<Repository> repos = new ArrayList<>();
+        try {
+            for (Path path : paths) {
+                if (Files.isDirectory(path))
+                    repos.add(new DirRepository(path));
+                else if (Files.isRegularFile(path))
+                    repos.add(new JarRepository(new JarFile(path.toFile())));
+            }
+        } catch (IOException | RuntimeException e) {
+            new CompositeRepository(repos).close();
+            throw e;
+        }
+        return new AuxRepository(repos);
+    }
+
+    private static Repository openJmod(Path jmod) throws IOException {
+        // the channel stays open: the classes are read in place
+        FileChannel channel = FileChannel.open(jmod, StandardOpenOption.READ);
+        try {
+            ZipIndex.Source source = ZipIndex.Source.of(channel);
+            byte[] magic = new byte[4];
+            source.read(0, magic, 0, magic.length);
+            if (magic[0] != 'J' || magic[1] != 'M')
+                throw new IOException("Not a jmod file: " + jmod);
+            ZipIndex archive = new ZipIndex(source.slice(magic.length, source.size() - magic.length));
+            return ArchiveRepository.classes(archive, "classes/");
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ITypeLoader createTypeLoader() {
+        return (internalName, buffer) -> {
+            List<String> moduleNames = packageModules.get(IndexedTypeLoader.getPackage(internalName));
+            if (moduleNames == null)
+                return false;
+            for (String module : moduleNames) {
+                byte[] data;
+                try {
+                    data = Files.readAllBytes(modules.resolve(module).resolve(internalName + ".class"));
+                } catch (NoSuchFileException e) {
+                    continue;
+                } catch (IOException e) {
+                    return false;
+                }
+                buffer.reset(data.length);
+                buffer.putByteArray(data, 0, data.length);
+                buffer.position(0);
+                return true;
+            }
+            return false;
+        };
+    }
+
+    @Override
+    public Set<String> getPackages() {
+        return packageModules.keySet();
+    }
+
+    @Override
+    public void visit(String rootPackage, RepositoryVisitor visitor) {
+    }
+
+    @Override
+    public void close() {
+        // the file system of the current JVM is shared and cannot be closed
+        if (ownFs) {
+            try {
+                fs.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
@@ -41,6 +42,25 @@ public interface Repository {
 
     void visit(String rootPackage, RepositoryVisitor visitor);
 
+    /**
+     * @return internal names of the packages which classes can be loaded by
+     *         this repository type loader (like "a/b/c") or null if unknown
+     */
+    default Set<String> getPackages() {
+        return null;
+    }
+
+    /**
+     * Releases the resources (like open archive files) held by the
+     * repository. The classes cannot be loaded afterwards. It's up to the
+     * code which created the repository to close it: the analysis context
+     * doesn't close the repository passed to it. Default implementation does
+     * nothing.
+     */
+    default void close() {
+        // nothing to release
+    }
+
     public static Repository createSelfRepository() {
         List<Repository> repos = new ArrayList<>();
         Set<Path> paths = new HashSet<>();
@@ -90,6 +110,11 @@ public interface Repository {
             public ITypeLoader createTypeLoader() {
                 return (internalName, buffer) -> false;
             }
+
+            @Override
+            public Set<String> getPackages() {
+                return Collections.emptySet();
+            }
         };
     }
 }
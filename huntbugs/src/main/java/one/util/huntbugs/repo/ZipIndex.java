@@ -0,0 +1,263 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Minimal random access reader of zip archives which may be stored inside
+ * other archives. The central directory is read once; the entries are read
+ * from the archive source directly, so the stored nested archive is read in
+ * place, without extracting it. Zip64 archives are not supported.
+ * 
+ * @author lan
+ */
+final class ZipIndex {
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIZE = 30;
+
+    /**
+     * Random access source of archive bytes
+     */
+    static abstract class Source {
+        abstract long size();
+
+        abstract void read(long pos, byte[] dst, int off, int len) throws IOException;
+
+        /**
+         * Closes the underlying file. The slices and the sources of nested
+         * archives are closed together with their parent.
+         * 
+         * @throws IOException if file cannot be closed
+         */
+        void close() throws IOException {
+            // nothing to close by default
+        }
+
+        Source slice(long offset, long size) {
+            Source parent = this;
+            return new Source() {
+                @Override
+                long size() {
+                    return size;
+                }
+
+                @Override
+                void read(long pos, byte[] dst, int off, int len) throws IOException {
+                    if (pos < 0 || pos + len > size)
+                        throw new IOException("Read outside of nested archive");
+                    parent.read(offset + pos, dst, off, len);
+                }
+            };
+        }
+
+        static Source of(FileChannel channel) throws IOException {
+            long size = channel.size();
+            return new Source() {
+                @Override
+                long size() {
+                    return size;
+                }
+
+                @Override
+                void read(long pos, byte[] dst, int off, int len) throws IOException {
+                    ByteBuffer bb = ByteBuffer.wrap(dst, off, len);
+                    while (bb.hasRemaining()) {
+                        if (channel.read(bb, pos + bb.position() - off) < 0)
+                            throw new IOException("Unexpected end of archive");
+                    }
+                }
+
+                @Override
+                void close() throws IOException {
+                    channel.close();
+                }
+            };
+        }
+
+        static Source of(byte[] data) {
+            return new Source() {
+                @Override
+                long size() {
+                    return data.length;
+                }
+
+                @Override
+                void read(long pos, byte[] dst, int off, int len) throws IOException {
+                    if (pos < 0 || pos + len > data.length)
+                        throw new IOException("Unexpected end of archive");
+                    System.arraycopy(data, (int) pos, dst, off, len);
+                }
+            };
+        }
+    }
+
+    static final class Entry {
+        final String name;
+        final int method;
+        final long compressedSize;
+        final long size;
+        final long offset;
+
+        Entry(String name, int method, long compressedSize, long size, long offset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.offset = offset;
+        }
+
+        boolean isStored() {
+            return method == ZipEntry.STORED;
+        }
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    private final Source source;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    ZipIndex(Source source) throws IOException {
+        this.source = source;
+        long size = source.size();
+        int tailSize = (int) Math.min(size, EOCD_SIZE + 0xFFFF);
+        byte[] tail = new byte[tailSize];
+        source.read(size - tailSize, tail, 0, tailSize);
+        int eocd = tailSize - EOCD_SIZE;
+        while (eocd >= 0 && getInt(tail, eocd) != EOCD_SIGNATURE)
+            eocd--;
+        if (eocd < 0)
+            throw new IOException("Not a zip archive");
+        long cenSize = getInt(tail, eocd + 12) & 0xFFFFFFFFL;
+        long cenOffset = getInt(tail, eocd + 16) & 0xFFFFFFFFL;
+        if (cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL)
+            throw new IOException("Unsupported zip archive");
+        // The archive may be preceded by other data (like the launch script of
+        // executable jar) which is not accounted in the offsets
+        long prefix = size - tailSize + eocd - cenSize - cenOffset;
+        if (prefix < 0)
+            throw new IOException("Invalid zip archive");
+        byte[] cen = new byte[(int) cenSize];
+        source.read(prefix + cenOffset, cen, 0, cen.length);
+        int pos = 0;
+        while (pos + CEN_SIZE <= cen.length && getInt(cen, pos) == CEN_SIGNATURE) {
+            int nameLength = getShort(cen, pos + 28);
+            int extraLength = getShort(cen, pos + 30);
+            int commentLength = getShort(cen, pos + 32);
+            String name = new String(cen, pos + CEN_SIZE, nameLength, StandardCharsets.UTF_8);
+            entries.put(name, new Entry(name, getShort(cen, pos + 10), getInt(cen, pos + 20) & 0xFFFFFFFFL, getInt(
+                cen, pos + 24) & 0xFFFFFFFFL, prefix + (getInt(cen, pos + 42) & 0xFFFFFFFFL)));
+            pos += CEN_SIZE + nameLength + extraLength + commentLength;
+        }
+    }
+
+    /**
+     * Closes the archive source
+     * 
+     * @throws IOException if source cannot be closed
+     */
+    void close() throws IOException {
+        source.close();
+    }
+
+    Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * @param entry stored entry
+     * @return source of the entry data which is read in place
+     * @throws IOException if entry is compressed or cannot be read
+     */
+    Source open(Entry entry) throws IOException {
+        if (!entry.isStored())
+            throw new IOException("Entry is compressed: " + entry.name);
+        return source.slice(dataOffset(entry), entry.size);
+    }
+
+    /**
+     * @param entry entry to read
+     * @return uncompressed entry bytes
+     * @throws IOException if entry cannot be read
+     */
+    byte[] read(Entry entry) throws IOException {
+        if (entry.size > Integer.MAX_VALUE - 8 || entry.compressedSize > Integer.MAX_VALUE - 8)
+            throw new IOException("Entry is too big: " + entry.name);
+        long offset = dataOffset(entry);
+        if (entry.isStored()) {
+            byte[] data = new byte[(int) entry.size];
+            source.read(offset, data, 0, data.length);
+            return data;
+        }
+        if (entry.method != ZipEntry.DEFLATED)
+            throw new IOException("Unsupported compression method " + entry.method + ": " + entry.name);
+        // an extra dummy byte is necessary for the inflater in nowrap mode
+        byte[] compressed = new byte[(int) entry.compressedSize + 1];
+        source.read(offset, compressed, 0, compressed.length - 1);
+        byte[] data = new byte[(int) entry.size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int pos = 0;
+            while (pos < data.length) {
+                int n = inflater.inflate(data, pos, data.length - pos);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IOException("Corrupted entry: " + entry.name);
+                pos += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted entry: " + entry.name, e);
+        } finally {
+            inflater.end();
+        }
+        return data;
+    }
+
+    private long dataOffset(Entry entry) throws IOException {
+        byte[] header = new byte[LOC_SIZE];
+        source.read(entry.offset, header, 0, LOC_SIZE);
+        if (getInt(header, 0) != LOC_SIGNATURE)
+            throw new IOException("Invalid local header: " + entry.name);
+        return entry.offset + LOC_SIZE + getShort(header, 26) + getShort(header, 28);
+    }
+
+    private static int getShort(byte[] b, int pos) {
+        return (b[pos] & 0xFF) | (b[pos + 1] & 0xFF) << 8;
+    }
+
+    private static int getInt(byte[] b, int pos) {
+        return getShort(b, pos) | getShort(b, pos + 2) << 16;
+    }
+}
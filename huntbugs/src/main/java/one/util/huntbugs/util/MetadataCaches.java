@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import com.strobel.assembler.metadata.IMetadataResolver;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+/**
+ * Implemented by the metadata systems (type resolvers) of single analysis to
+ * share the caches of derived type information. The caches store names rather
+ * than type definitions, so they survive the metadata system flushes.
+ * 
+ * @author lan
+ */
+public interface MetadataCaches {
+    SubtypeCache getSubtypeCache();
+
+    /**
+     * @param td type definition
+     * @return caches shared by the metadata system of given type or null if
+     *         the type was loaded outside of analysis
+     */
+    static MetadataCaches of(TypeDefinition td) {
+        IMetadataResolver resolver = td.getResolver();
+        return resolver instanceof MetadataCaches ? (MetadataCaches) resolver : null;
+    }
+}
@@ -66,6 +66,7 @@ public class Methods {
         return false;
     }
     
+    // Super method lookups are not memoized: nearly every lookup in an analysis is for a distinct method
     public static MethodDefinition findSuperMethod(MethodReference mr) {
         MethodDefinition md = mr.resolve();
         if(md == null)
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+/**
+ * Open-addressing hash index from the triple of non-negative ints (usually
+ * {@link Symbols} ids) to int value. Slots are stored in {@link Records}, so
+ * the index is off-heap if requested. Concurrent reads are safe, writes must
+ * be confined to single thread.
+ * 
+ * @author lan
+ */
+public final class RecordIndex {
+    // Slot layout: key1+1 (0 = empty slot), key2, key3, value
+    private static final int SLOT_SIZE = 16;
+
+    private final boolean offHeap;
+    private volatile Records slots;
+    private int size;
+
+    public RecordIndex(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.slots = allocate(16);
+    }
+
+    private Records allocate(int capacity) {
+        Records records = new Records(SLOT_SIZE, offHeap);
+        for (int i = 0; i < capacity; i++)
+            records.add();
+        return records;
+    }
+
+    private static int hash(int k1, int k2, int k3) {
+        int h = ((k1 * 31) + k2) * 31 + k3;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int indexOf(Records slots, int k1, int k2, int k3) {
+        int mask = slots.size() - 1;
+        int i = hash(k1, k2, k3) & mask;
+        while (true) {
+            int k = slots.getInt(i, 0);
+            if (k == 0)
+                return -1 - i;
+            if (k == k1 + 1 && slots.getInt(i, 4) == k2 && slots.getInt(i, 8) == k3)
+                return i;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int get(int k1, int k2, int k3, int defaultValue) {
+        if (k1 < 0 || k2 < 0 || k3 < 0)
+            return defaultValue;
+        Records slots = this.slots;
+        int i = indexOf(slots, k1, k2, k3);
+        return i < 0 ? defaultValue : slots.getInt(i, 12);
+    }
+
+    public void put(int k1, int k2, int k3, int value) {
+        if (k1 < 0 || k2 < 0 || k3 < 0)
+            throw new IllegalArgumentException("Negative key: " + k1 + "/" + k2 + "/" + k3);
+        int i = indexOf(slots, k1, k2, k3);
+        if (i >= 0) {
+            slots.putInt(i, 12, value);
+            return;
+        }
+        if ((size + 1) * 2 > slots.size()) {
+            rehash();
+            i = indexOf(slots, k1, k2, k3);
+        }
+        store(slots, -1 - i, k1, k2, k3, value);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Releases the backing file of off-heap index which is not used anymore
+     */
+    public void close() {
+        slots.close();
+    }
+
+    private static void store(Records slots, int i, int k1, int k2, int k3, int value) {
+        slots.putInt(i, 4, k2);
+        slots.putInt(i, 8, k3);
+        slots.putInt(i, 12, value);
+        slots.putInt(i, 0, k1 + 1);
+    }
+
+    private void rehash() {
+        Records oldSlots = slots;
+        Records newSlots = allocate(oldSlots.size() * 2);
+        for (int j = 0; j < oldSlots.size(); j++) {
+            int k1 = oldSlots.getInt(j, 0) - 1;
+            if (k1 >= 0) {
+                int k2 = oldSlots.getInt(j, 4), k3 = oldSlots.getInt(j, 8);
+                store(newSlots, -1 - indexOf(newSlots, k1, k2, k3), k1, k2, k3, oldSlots.getInt(j, 12));
+            }
+        }
+        slots = newSlots;
+        oldSlots.close();
+    }
+}
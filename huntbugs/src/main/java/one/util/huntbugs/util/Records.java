@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Growable array of fixed-layout records addressed by record number. Records
+ * are allocated in chunks either on the heap or (off-heap) in the temporary
+ * memory-mapped file, so the huge databases do not compete for the heap with
+ * the metadata. The first chunk holds 64 records, every next chunk is as big
+ * as all the previous ones, so small arrays stay small. New records are
+ * filled with zeros.
+ * 
+ * <p>
+ * Concurrent reads are safe, writes must be confined to single thread.
+ * 
+ * @author lan
+ */
+public final class Records {
+    // The first chunk holds records [0, 1 << FIRST_CHUNK_BITS), chunk n > 0
+    // holds records [1 << (FIRST_CHUNK_BITS + n - 1), 1 << (FIRST_CHUNK_BITS + n))
+    private static final int FIRST_CHUNK_BITS = 6;
+    private static final int FIRST_CHUNK_MASK = (1 << FIRST_CHUNK_BITS) - 1;
+
+    private final int recordSize;
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer[] chunks = new ByteBuffer[32 - FIRST_CHUNK_BITS];
+    private int size;
+
+    /**
+     * @param recordSize size of single record in bytes
+     * @param offHeap if true, records are stored in the memory-mapped file
+     */
+    public Records(int recordSize, boolean offHeap) {
+        this.recordSize = recordSize;
+        if (offHeap) {
+            try {
+                File file = File.createTempFile("huntbugs-db", ".bin");
+                this.channel = new RandomAccessFile(file, "rw").getChannel();
+                // Mapping stays valid after deletion on most of platforms,
+                // otherwise the file is deleted on close
+                this.file = file.delete() ? null : file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            this.channel = null;
+            this.file = null;
+        }
+    }
+
+    private static int chunk(int record) {
+        return 32 - Integer.numberOfLeadingZeros(record >>> FIRST_CHUNK_BITS);
+    }
+
+    private static int chunkStart(int record) {
+        return Integer.highestOneBit(record) & ~FIRST_CHUNK_MASK;
+    }
+
+    /**
+     * @return number of the new record
+     */
+    public int add() {
+        int chunk = chunk(size);
+        if (chunks[chunk] == null) {
+            chunks[chunk] = allocate(size, chunk == 0 ? 1 << FIRST_CHUNK_BITS : size);
+        }
+        return size++;
+    }
+
+    private ByteBuffer allocate(int start, int count) {
+        int bytes = recordSize * count;
+        if (channel == null)
+            return ByteBuffer.allocate(bytes);
+        try {
+            return channel.map(MapMode.READ_WRITE, (long) start * recordSize, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Releases the backing file of off-heap records which are not used
+     * anymore. The records are unmapped by garbage collector.
+     */
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (file != null && !file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isOffHeap() {
+        return channel != null;
+    }
+
+    public int getInt(int record, int offset) {
+        return chunks[chunk(record)].getInt((record - chunkStart(record)) * recordSize + offset);
+    }
+
+    public void putInt(int record, int offset, int value) {
+        chunks[chunk(record)].putInt((record - chunkStart(record)) * recordSize + offset, value);
+    }
+
+    public long getLong(int record, int offset) {
+        return chunks[chunk(record)].getLong((record - chunkStart(record)) * recordSize + offset);
+    }
+
+    public void putLong(int record, int offset, long value) {
+        chunks[chunk(record)].putLong((record - chunkStart(record)) * recordSize + offset, value);
+    }
+}
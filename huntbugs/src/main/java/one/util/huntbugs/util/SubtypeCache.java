@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.assembler.metadata.TypeReference;
+
+/**
+ * Thread-safe cache of transitive supertypes used by
+ * {@link Types#isInstance(TypeReference, String)}. Type internal names are
+ * mapped to int ids and every resolved type gets the sorted array of its own id
+ * and the ids of all its superclasses and superinterfaces, so a subtype check
+ * is a binary search.
+ * 
+ * @author lan
+ */
+public class SubtypeCache {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final Map<String, int[]> supertypes = new ConcurrentHashMap<>();
+
+    static SubtypeCache of(TypeDefinition td) {
+        MetadataCaches caches = MetadataCaches.of(td);
+        return caches == null ? null : caches.getSubtypeCache();
+    }
+
+    /**
+     * @param td resolved type
+     * @param wantedType internal name of the wanted type
+     * @return true if the type is the wanted type or its subtype
+     */
+    boolean isSubtype(TypeDefinition td, String wantedType) {
+        // supertypes must be computed first as they intern the names
+        int[] supers = getSupertypes(td);
+        Integer id = ids.get(wantedType);
+        return id != null && Arrays.binarySearch(supers, id) >= 0;
+    }
+
+    private int[] getSupertypes(TypeDefinition td) {
+        int[] result = supertypes.get(td.getInternalName());
+        if (result == null) {
+            // Not computeIfAbsent: computation is recursive
+            int[] ids = { id(td.getInternalName()) };
+            for (TypeReference iface : td.getExplicitInterfaces()) {
+                ids = union(ids, getSupertypes(iface));
+            }
+            TypeReference bt = td.getBaseType();
+            if (bt != null) {
+                ids = union(ids, getSupertypes(bt));
+            }
+            supertypes.putIfAbsent(td.getInternalName(), ids);
+            result = ids;
+        }
+        return result;
+    }
+
+    private int[] getSupertypes(TypeReference tr) {
+        TypeDefinition td = tr.resolve();
+        return td == null ? new int[] { id(tr.getInternalName()) } : getSupertypes(td);
+    }
+
+    private int id(String internalName) {
+        Integer id = ids.get(internalName);
+        return id != null ? id : ids.computeIfAbsent(internalName, k -> lastId.getAndIncrement());
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        // both arrays are sorted
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length || j < b.length) {
+            int next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i] : b[j];
+            if (i < a.length && a[i] == next)
+                i++;
+            if (j < b.length && b[j] == next)
+                j++;
+            result[size++] = next;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+}
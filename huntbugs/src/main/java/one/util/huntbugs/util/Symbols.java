@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe symbol table which maps internal names, member names and
+ * descriptors to canonical {@code String} instances and dense int ids. The
+ * symbols are never removed, so the table lives as long as single analysis:
+ * it's owned by the database registry and shared by all the databases which
+ * key their records by the symbol ids.
+ * 
+ * @author lan
+ */
+public final class Symbols {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[256];
+    private int size;
+
+    /**
+     * @param name symbol to intern
+     * @return id of the symbol
+     */
+    public int id(String name) {
+        Integer id = ids.get(name);
+        if (id != null)
+            return id;
+        synchronized (ids) {
+            id = ids.get(name);
+            if (id != null)
+                return id;
+            String[] arr = names;
+            if (size == arr.length) {
+                arr = Arrays.copyOf(arr, size * 2);
+            }
+            arr[size] = name;
+            names = arr;
+            // published after the array write, so readers which got an id
+            // always see the name
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param name symbol to find
+     * @return id of the symbol or -1 if it was never interned
+     */
+    public int find(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id symbol id previously returned by {@link #id(String)}
+     * @return the canonical symbol
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param name symbol to intern
+     * @return canonical instance of the symbol equal to the given one
+     */
+    public String intern(String name) {
+        return name(id(name));
+    }
+}
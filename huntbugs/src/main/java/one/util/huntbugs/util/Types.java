@@ -97,6 +97,9 @@ public class Types {
         TypeDefinition td = type.resolve();
         if (td == null)
             return false;
+        SubtypeCache cache = SubtypeCache.of(td);
+        if (cache != null)
+            return cache.isSubtype(td, wantedType);
         for (TypeReference iface : td.getExplicitInterfaces()) {
             if (isInstance(iface, wantedType))
                 return true;
@@ -137,9 +140,7 @@ public class Types {
 
     public static boolean samePackage(String internalName1, String internalName2) {
         int pos = internalName1.lastIndexOf('/');
-        if (pos == -1)
-            return internalName2.indexOf('/') == 1;
-        return internalName2.startsWith(internalName1.substring(0, pos + 1));
+        return pos == internalName2.lastIndexOf('/') && internalName1.regionMatches(0, internalName2, 0, pos);
     }
 
     /**
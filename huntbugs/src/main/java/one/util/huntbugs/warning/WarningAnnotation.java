@@ -140,17 +140,18 @@ public class WarningAnnotation<T> {
         private final TypeInfo type;
         private final String name;
         private final String signature;
+        private final int hash;
 
         public MemberInfo(String typeName, String name, String signature) {
             this.type = new TypeInfo(Objects.requireNonNull(typeName));
             this.name = Objects.requireNonNull(name);
             this.signature = Objects.requireNonNull(signature);
+            // MemberInfo is widely used as a map key, so the hash is computed once
+            this.hash = (31 * (31 + this.name.hashCode()) + type.hashCode()) * 31 + this.signature.hashCode();
         }
 
         public MemberInfo(MemberReference mr) {
-            this.type = new TypeInfo(mr.getDeclaringType().getInternalName());
-            this.name = mr.getName();
-            this.signature = mr.getErasedSignature();
+            this(mr.getDeclaringType().getInternalName(), mr.getName(), mr.getErasedSignature());
         }
 
         public String getTypeName() {
@@ -185,7 +186,7 @@ public class WarningAnnotation<T> {
 
         @Override
         public int hashCode() {
-            return Objects.hash(name, type, signature);
+            return hash;
         }
 
         @Override
@@ -195,7 +196,8 @@ public class WarningAnnotation<T> {
             if (obj == null || getClass() != obj.getClass())
                 return false;
             MemberInfo other = (MemberInfo) obj;
-            return name.equals(other.name) && signature.equals(other.signature) && type.equals(other.type);
+            return hash == other.hash && name.equals(other.name) && signature.equals(other.signature)
+                && type.equals(other.type);
         }
 
         public TypeInfo getReturnType() {
@@ -19,12 +19,19 @@ import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.HuntBugsResult;
 import one.util.huntbugs.input.XmlReportReader;
 import one.util.huntbugs.output.Reports;
 import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.warning.Warning;
 import static org.junit.Assert.*;
 
 import org.junit.Test;
@@ -51,4 +58,44 @@ public class DataTest {
         Reports.write(rereadReport, null, result);
         assertArrayEquals(Files.readAllBytes(xmlReport), Files.readAllBytes(rereadReport));
     }
+
+    private static List<Warning> warnings(boolean sparse) {
+        AnalysisOptions options = new AnalysisOptions();
+        options.sparseDataflow = sparse;
+        Context ctx = new Context(Repository.createSelfRepository(), options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        return ctx.warnings().collect(Collectors.toList());
+    }
+
+    private static List<String> diff(List<Warning> warnings, List<Warning> other) {
+        Set<String> otherStrings = other.stream().map(Object::toString).collect(Collectors.toSet());
+        return warnings.stream().filter(w -> !otherStrings.contains(w.toString()))
+                .map(w -> w.getType().getName() + " " + w.getClassName()).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSparseDataflow() {
+        List<Warning> dense = warnings(false);
+        List<Warning> sparse = warnings(true);
+        // Sparse mode ignores branch conditions and exceptional paths, so the
+        // warnings which rely on them are lost. Nothing else may differ.
+        List<String> lost = new ArrayList<>();
+        lost.add("NullDereferenceExceptional one.util.huntbugs.testdata.TestNullCheck");
+        for (String type : Arrays.asList("RedundantComparisonNull", "RedundantNullCheckChecked",
+            "RedundantNullCheckChecked", "RedundantNullCheckDeref", "RedundantNullCheckNull", "RedundantNullCheckNull"))
+            lost.add(type + " one.util.huntbugs.testdata.TestNullCheck");
+        for (int i = 0; i < 2; i++)
+            lost.add("ResultOfComparisonIsStaticallyKnown one.util.huntbugs.testdata.TestExclusiveConditions");
+        for (int i = 0; i < 5; i++)
+            lost.add("ResultOfComparisonIsStaticallyKnown one.util.huntbugs.testdata.TestKnownComparison");
+        for (int i = 0; i < 3; i++)
+            lost.add("ResultOfComparisonIsStaticallyKnownDeadCode one.util.huntbugs.testdata.TestExclusiveConditions");
+        for (int i = 0; i < 6; i++)
+            lost.add("ResultOfComparisonIsStaticallyKnownDeadCode one.util.huntbugs.testdata.TestKnownComparison");
+        Collections.sort(lost);
+        assertEquals(lost, diff(dense, sparse));
+        // Exceptional path is not distinguished: the dereference is reported as possible
+        assertEquals(Arrays.asList("NullDereferencePossible one.util.huntbugs.testdata.TestNullCheck"), diff(sparse,
+            dense));
+    }
 }
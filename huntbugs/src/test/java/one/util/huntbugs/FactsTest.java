@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.strobel.assembler.ir.FlowControl;
+import com.strobel.assembler.ir.Instruction;
+import com.strobel.assembler.ir.OpCode;
+import com.strobel.assembler.metadata.DynamicCallSite;
+import com.strobel.assembler.metadata.FieldReference;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.MethodHandle;
+import com.strobel.assembler.metadata.MethodReference;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.assembler.metadata.TypeReference;
+
+import one.util.huntbugs.flow.Fact;
+import one.util.huntbugs.flow.Inf;
+import one.util.huntbugs.registry.anno.UsesFacts;
+import one.util.huntbugs.registry.anno.WarningDefinition;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.repo.RepositoryVisitor;
+
+/**
+ * Checks that {@link UsesFacts} annotation of every detector lists exactly the facts the detector code may read.
+ *
+ * @author lan
+ */
+public class FactsTest {
+    private static final String DETECTORS_PACKAGE = "one/util/huntbugs/detect";
+    private static final String INF_TYPE = Inf.class.getName().replace('.', '/');
+
+    @Test
+    public void testDeclaredFacts() {
+        Repository repo = Repository.createSelfRepository();
+        MetadataSystem ms = new MetadataSystem(repo.createTypeLoader());
+        List<String> detectors = new ArrayList<>();
+        repo.visit(DETECTORS_PACKAGE, new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return packageName.equals(DETECTORS_PACKAGE);
+            }
+
+            @Override
+            public void visitClass(String className) {
+                detectors.add(className);
+            }
+        });
+        List<String> mismatches = new ArrayList<>();
+        for (String className : detectors) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(className.replace('/', '.'));
+            } catch (ClassNotFoundException e) {
+                throw new AssertionError(e);
+            }
+            if (clazz.getAnnotationsByType(WarningDefinition.class).length == 0)
+                continue;
+            Set<Fact> declared = EnumSet.noneOf(Fact.class);
+            UsesFacts uf = clazz.getAnnotation(UsesFacts.class);
+            if (uf != null)
+                declared.addAll(Arrays.asList(uf.value()));
+            Set<Fact> used = collectFacts(ms, className);
+            if (!declared.equals(used))
+                mismatches.add(clazz.getSimpleName() + ": declared " + declared + "; used " + used);
+        }
+        assertTrue(String.join("\n", mismatches), mismatches.isEmpty());
+    }
+
+    private static Set<Fact> collectFacts(MetadataSystem ms, String className) {
+        Set<Fact> facts = EnumSet.noneOf(Fact.class);
+        Set<String> visited = new HashSet<>();
+        Deque<MethodDefinition> queue = new ArrayDeque<>();
+        TypeReference tr = ms.lookupType(className);
+        TypeDefinition td = tr == null ? null : tr.resolve();
+        assertNotNull(className, td);
+        addMethods(queue, td);
+        while (!queue.isEmpty()) {
+            MethodDefinition md = queue.poll();
+            if (!visited.add(md.getDeclaringType().getInternalName() + "." + md.getName() + md.getErasedSignature()))
+                continue;
+            MethodBody body = md.getBody();
+            if (body == null)
+                continue;
+            for (Instruction instr : body.getInstructions()) {
+                if (instr.getOpCode() == OpCode.GETSTATIC) {
+                    FieldReference fr = instr.getOperand(0);
+                    if (fr.getDeclaringType().getInternalName().equals(INF_TYPE) && !fr.getName().equals("SOURCE")
+                        && !fr.getName().equals("BACKLINK")) {
+                        facts.add(Fact.valueOf(fr.getName()));
+                    }
+                } else if (instr.getOpCode().getFlowControl() == FlowControl.Call) {
+                    if (instr.getOpCode() == OpCode.INVOKEDYNAMIC) {
+                        DynamicCallSite dcs = instr.getOperand(0);
+                        for (Object arg : dcs.getBootstrapArguments()) {
+                            if (arg instanceof MethodHandle)
+                                addMethod(queue, ((MethodHandle) arg).getMethod());
+                        }
+                    } else {
+                        addMethod(queue, instr.getOperand(0));
+                    }
+                }
+            }
+        }
+        return facts;
+    }
+
+    private static void addMethods(Deque<MethodDefinition> queue, TypeDefinition td) {
+        queue.addAll(td.getDeclaredMethods());
+        for (TypeDefinition nested : td.getDeclaredTypes())
+            addMethods(queue, nested);
+    }
+
+    private static void addMethod(Deque<MethodDefinition> queue, MethodReference mr) {
+        if (!mr.getDeclaringType().getInternalName().startsWith("one/util/huntbugs/"))
+            return;
+        MethodDefinition md = mr.resolve();
+        if (md != null)
+            queue.add(md);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.warning.Role.NumberRole;
+import one.util.huntbugs.warning.Warning;
+
+import org.junit.Test;
+
+/**
+ * @author lan
+ *
+ */
+public class LightTierTest {
+    @Test
+    public void testTiers() {
+        AnalysisOptions options = new AnalysisOptions();
+        options.maxMethodSize = 30;
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.endsWith("/flow/CFG"));
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/flow");
+        assertEquals("", ctx.errors().map(Object::toString).collect(Collectors.joining()));
+
+        long full = ctx.getStat("Tier.Full/Methods");
+        long light = ctx.getStat("Tier.Light/Methods");
+        assertTrue(full > 0);
+        assertTrue(light > 0);
+        assertTrue(full + light <= ctx.getStat("Methods"));
+        // No built-in detector declares a partial AST, so only the light tier stops the optimization early
+        assertEquals(light, ctx.getStat("PartialAst/Methods"));
+
+        List<Warning> tooLarge = ctx.warnings().filter(w -> w.getType().getName().equals("MethodTooLarge")).collect(
+            Collectors.toList());
+        int score = ctx.getWarningType("MethodTooLarge").getMaxScore();
+        assertEquals(light, tooLarge.size());
+        for (Warning w : tooLarge) {
+            assertTrue(w.getScore() < score);
+            assertEquals(30, w.getAnnotation(NumberRole.forName("LIMIT")).intValue());
+            assertTrue(w.getAnnotation(NumberRole.forName("BYTECODE_SIZE")).intValue() > 30);
+        }
+    }
+}
@@ -17,9 +17,15 @@ package one.util.huntbugs;
 
 import static org.junit.Assert.*;
 import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.AnalysisProfile;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
 
 import org.junit.Test;
 
+import com.strobel.decompiler.ast.AstOptimizationStep;
+
 /**
  * @author Tagir Valeev
  *
@@ -34,4 +40,67 @@ public class OptionsTest {
         assertEquals(40, opt.minScore);
         assertFalse(opt.addBootClassPath);
     }
+
+    @Test
+    public void testProfile() {
+        AnalysisOptions opt = new AnalysisOptions();
+        assertEquals(AnalysisProfile.BALANCED, opt.profile);
+        opt.set("profile", "fast");
+        assertEquals(AnalysisProfile.FAST, opt.profile);
+        assertTrue(opt.sparseDataflow);
+        assertFalse(opt.populateDependencyDatabases);
+        opt.set("maxMethodSize", "100");
+        assertEquals(100, opt.maxMethodSize);
+        assertEquals(AstOptimizationStep.None, opt.astOptimizationLimit);
+        opt.set("astOptimizationLimit", "gotoremoval");
+        assertEquals(AstOptimizationStep.GotoRemoval, opt.astOptimizationLimit);
+        opt.set("profile", "thorough");
+        assertEquals(AstOptimizationStep.GotoRemoval, opt.astOptimizationLimit);
+        try {
+            opt.set("astOptimizationLimit", "everything");
+            fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            opt.set("profile", "slow");
+            fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testExplicitOptionsWin() {
+        // explicit option before the profile
+        AnalysisOptions opt = new AnalysisOptions();
+        opt.set("maxMethodSize", "100");
+        opt.set("profile", "thorough");
+        assertEquals(100, opt.maxMethodSize);
+        assertEquals(15, opt.maxDataflowIterations);
+        opt.set("profile", "fast");
+        assertEquals(100, opt.maxMethodSize);
+        assertEquals(3, opt.maxDataflowIterations);
+
+        // explicit option after the profile
+        opt = new AnalysisOptions();
+        opt.set("profile", "thorough");
+        opt.set("maxMethodSize", "100");
+        assertEquals(100, opt.maxMethodSize);
+        assertEquals(15, opt.maxDataflowIterations);
+    }
+
+    @Test
+    public void testBadJdkHome() {
+        AnalysisOptions opt = new AnalysisOptions();
+        opt.jdkHome = "/no/such/jdk";
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.endsWith(
+            "/TestSyncGetClass"));
+        Context ctx = new Context(repo, opt);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        // reported, but the JDK of the current JVM is used instead
+        assertEquals(1, ctx.errors().count());
+        assertTrue(ctx.errors().findFirst().get().getError().startsWith("Cannot read JDK classes from /no/such/jdk"));
+        assertTrue(ctx.warnings().anyMatch(w -> w.getType().getName().equals("SyncOnGetClass")));
+    }
 }
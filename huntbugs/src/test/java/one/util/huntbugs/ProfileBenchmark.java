@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.jar.JarFile;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.AnalysisProfile;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.JarRepository;
+import one.util.huntbugs.repo.Repository;
+
+/**
+ * Compares the analysis time of the profiles (not run as part of the test
+ * suite). Analyzes the given jar, or procyon-compilertools from the test
+ * class path if none is given, within one JVM: the profiles are warmed up
+ * first, then measured in turns, so the JIT state and the disk cache are the
+ * same for all of them. Usage:
+ * 
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;procyon jars&gt; one.util.huntbugs.ProfileBenchmark [jar [runs]]
+ * </pre>
+ * 
+ * @author lan
+ */
+public class ProfileBenchmark {
+    private static final int WARM_UP_RUNS = 2;
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File jar = args.length > 0 ? new File(args[0]) : new File(MetadataSystem.class.getProtectionDomain()
+                .getCodeSource().getLocation().toURI());
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        AnalysisProfile[] profiles = AnalysisProfile.values();
+        Map<AnalysisProfile, long[]> times = new EnumMap<>(AnalysisProfile.class);
+        Map<AnalysisProfile, Long> warnings = new EnumMap<>(AnalysisProfile.class);
+        for (AnalysisProfile profile : profiles) {
+            times.put(profile, new long[runs]);
+        }
+        for (int run = -WARM_UP_RUNS; run < runs; run++) {
+            for (AnalysisProfile profile : profiles) {
+                AnalysisOptions options = new AnalysisOptions();
+                options.setProfile(profile);
+                Repository repo = new JarRepository(new JarFile(jar));
+                try {
+                    Context ctx = new Context(repo, options);
+                    long start = System.nanoTime();
+                    ctx.analyzePackage("");
+                    long time = System.nanoTime() - start;
+                    if (run >= 0)
+                        times.get(profile)[run] = time;
+                    warnings.put(profile, ctx.warnings().count());
+                } finally {
+                    repo.close();
+                }
+            }
+        }
+        System.out.println("Analyzed " + jar + ", " + runs + " runs after " + WARM_UP_RUNS + " warm-up runs");
+        System.out.printf("%-10s %10s %10s %10s%n", "Profile", "Median ms", "Min ms", "Warnings");
+        for (AnalysisProfile profile : profiles) {
+            long[] t = times.get(profile);
+            Arrays.sort(t);
+            System.out.printf("%-10s %10d %10d %10d%n", profile, t[t.length / 2] / 1_000_000, t[0] / 1_000_000,
+                warnings.get(profile));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.db;
+
+import static org.junit.Assert.*;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.db.other.OtherSub;
+import one.util.huntbugs.repo.Repository;
+
+/**
+ * @author lan
+ */
+public class HierarchyTest {
+    public static class Base {
+        public Base() {
+        }
+
+        void pkg() {
+        }
+
+        public void pub() {
+        }
+
+        protected void prot() {
+        }
+
+        private void priv() {
+        }
+
+        public static void stat() {
+        }
+
+        public void notOverridden() {
+        }
+    }
+
+    public static class Sub extends Base {
+        public Sub() {
+        }
+
+        @Override
+        protected void prot() {
+        }
+
+        @SuppressWarnings("unused")
+        private void priv() {
+        }
+
+        public static void stat() {
+        }
+    }
+
+    // overrides Base.pkg via the subclass from other package
+    public static class SamePackageSub extends OtherSub {
+        @Override
+        void pkg() {
+        }
+    }
+
+    interface Root {
+        void m();
+
+        void n();
+    }
+
+    interface Left extends Root {
+    }
+
+    interface Right extends Root {
+    }
+
+    static class Diamond implements Left, Right {
+        @Override
+        public void m() {
+        }
+
+        @Override
+        public void n() {
+        }
+    }
+
+    static class Deep0 {
+        void m() {
+        }
+
+        void n() {
+        }
+    }
+
+    static class Deep1 extends Deep0 {}
+    static class Deep2 extends Deep1 {}
+    static class Deep3 extends Deep2 {}
+    static class Deep4 extends Deep3 {}
+    static class Deep5 extends Deep4 {}
+    static class Deep6 extends Deep5 {}
+    static class Deep7 extends Deep6 {
+        @Override
+        void m() {
+        }
+    }
+
+    private final MetadataSystem ms = new MetadataSystem(Repository.createSelfRepository().createTypeLoader());
+
+    private TypeDefinition type(Class<?> clazz) {
+        return ms.lookupType(clazz.getName().replace('.', '/')).resolve();
+    }
+
+    private static Function<String, MethodDefinition> methods(TypeDefinition td) {
+        return name -> td.getDeclaredMethods().stream().filter(md -> md.getName().equals(name)).findFirst().get();
+    }
+
+    private Hierarchy hierarchy(Class<?>... classes) {
+        Hierarchy h = new Hierarchy();
+        for (Class<?> clazz : classes)
+            h.visitType(type(clazz));
+        return h;
+    }
+
+    @Test
+    public void testAccess() {
+        Hierarchy h = hierarchy(Base.class, Sub.class, OtherSub.class);
+        Function<String, MethodDefinition> base = methods(type(Base.class));
+        assertTrue(h.isOverridden(base.apply("prot")));
+        assertFalse(h.isOverriddenOutsidePackage(base.apply("prot")));
+        assertTrue(h.isOverridden(base.apply("pub")));
+        assertTrue(h.isOverriddenOutsidePackage(base.apply("pub")));
+        assertFalse(h.isOverridden(base.apply("priv")));
+        assertFalse(h.isOverridden(base.apply("stat")));
+        assertFalse(h.isOverridden(base.apply("<init>")));
+        assertFalse(h.isOverridden(base.apply("notOverridden")));
+        // OtherSub.pkg is a different method
+        assertFalse(h.isOverridden(base.apply("pkg")));
+        assertFalse(h.isOverriddenOutsidePackage(base.apply("pkg")));
+
+        h = hierarchy(Base.class, OtherSub.class, SamePackageSub.class);
+        assertTrue(h.isOverridden(base.apply("pkg")));
+        assertFalse(h.isOverriddenOutsidePackage(base.apply("pkg")));
+    }
+
+    @Test
+    public void testInterfaceDiamond() {
+        Hierarchy h = hierarchy(Root.class, Left.class, Right.class, Diamond.class);
+        Function<String, MethodDefinition> root = methods(type(Root.class));
+        assertTrue(h.isOverridden(root.apply("m")));
+        assertTrue(h.isOverridden(root.apply("n")));
+        assertFalse(h.isOverriddenOutsidePackage(root.apply("m")));
+        assertFalse(h.isOverridden(methods(type(Diamond.class)).apply("m")));
+    }
+
+    @Test
+    public void testDeepTree() {
+        Hierarchy h = hierarchy(Deep0.class, Deep1.class, Deep2.class, Deep3.class, Deep4.class, Deep5.class,
+            Deep6.class, Deep7.class);
+        Function<String, MethodDefinition> deep0 = methods(type(Deep0.class));
+        assertTrue(h.isOverridden(deep0.apply("m")));
+        assertFalse(h.isOverridden(deep0.apply("n")));
+        assertFalse(h.isOverridden(methods(type(Deep7.class)).apply("m")));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.db;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.db.MethodSummaries.Summary;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+
+/**
+ * @author lan
+ *
+ */
+public class MethodSummariesTest {
+    static final String TYPE = MethodSummariesTest.class.getName().replace('.', '/') + "$Sample";
+
+    static class Sample {
+        Object field;
+
+        Sample(Object obj) {
+            field = obj;
+        }
+
+        Sample(Object obj, int x) {
+            this(obj);
+        }
+
+        Sample(Sample other) {
+            other.field = this;
+        }
+
+        static Sample create(Object obj) {
+            return new Sample(obj, 1);
+        }
+
+        static int pureRecursive(int x) {
+            return x <= 0 ? 0 : pureRecursive2(x - 1) + 1;
+        }
+
+        static int pureRecursive2(int x) {
+            return pureRecursive(x / 2);
+        }
+
+        static int callsPure(int x) {
+            return pureRecursive(x) * 2;
+        }
+
+        private void store(Object obj) {
+            field = obj;
+        }
+
+        void storeIndirectly(Object obj) {
+            store(obj);
+        }
+
+        int pureVirtual() {
+            return 1;
+        }
+
+        int callsOverridable() {
+            return pureVirtual();
+        }
+
+        final void callsPrivate() {
+            store(null);
+        }
+    }
+
+    private static Summary summary(MethodSummaries db, String name, String signature) {
+        Summary summary = db.getSummary(new MemberInfo(TYPE, name, signature));
+        assertNotNull(name, summary);
+        return summary;
+    }
+
+    @Test
+    public void testSummaries() {
+        MetadataSystem ms = new MetadataSystem(Repository.createSelfRepository().createTypeLoader());
+        TypeDefinition td = ms.lookupType(TYPE).resolve();
+        MethodSummaries db = new MethodSummaries();
+        db.visitType(td);
+
+        assertFalse(summary(db, "pureRecursive", "(I)I").mayHaveSideEffect());
+        assertFalse(summary(db, "pureRecursive2", "(I)I").mayHaveSideEffect());
+        assertFalse(summary(db, "callsPure", "(I)I").mayHaveSideEffect());
+        assertFalse(summary(db, "pureVirtual", "()I").mayHaveSideEffect());
+
+        Summary store = summary(db, "store", "(Ljava/lang/Object;)V");
+        assertTrue(store.isFinal());
+        assertTrue(store.mayHaveSideEffect());
+        assertFalse(summary(db, "storeIndirectly", "(Ljava/lang/Object;)V").isFinal());
+        assertTrue(summary(db, "storeIndirectly", "(Ljava/lang/Object;)V").mayHaveSideEffect());
+        // pureVirtual() is not statically bound
+        assertTrue(summary(db, "callsOverridable", "()I").mayHaveSideEffect());
+        assertTrue(summary(db, "callsPrivate", "()V").mayHaveSideEffect());
+
+        // stores to the object under construction
+        Summary ctor = summary(db, "<init>", "(Ljava/lang/Object;)V");
+        assertTrue(ctor.mayHaveSideEffect());
+        assertFalse(ctor.mayHaveSideEffectOnNewObject());
+        Summary chained = summary(db, "<init>", "(Ljava/lang/Object;I)V");
+        assertTrue(chained.mayHaveSideEffect());
+        assertFalse(chained.mayHaveSideEffectOnNewObject());
+        assertFalse(summary(db, "create", "(Ljava/lang/Object;)L" + TYPE + ";").mayHaveSideEffect());
+        assertTrue(summary(db, "<init>", "(L" + TYPE + ";)V").mayHaveSideEffectOnNewObject());
+        // call graph is not retained after solving
+        assertNull(store.local);
+    }
+}
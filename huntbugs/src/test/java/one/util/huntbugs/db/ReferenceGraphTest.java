@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.db;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+
+/**
+ * @author lan
+ *
+ */
+public class ReferenceGraphTest {
+    static final String TYPE = ReferenceGraphTest.class.getName().replace('.', '/') + "$Sample";
+
+    static class Sample {
+        int field;
+
+        void a() {
+            b();
+            b();
+            field = c();
+        }
+
+        void b() {
+            field++;
+        }
+
+        int c() {
+            Supplier<Integer> s = this::c;
+            return s.get();
+        }
+
+        private int d() {
+            return 1;
+        }
+
+        Runnable e() {
+            return () -> d();
+        }
+
+        IntSupplier f() {
+            return this::d;
+        }
+    }
+
+    private static MemberInfo method(String name, String sig) {
+        return new MemberInfo(TYPE, name, sig);
+    }
+
+    @Test
+    public void testGraph() {
+        MetadataSystem ms = new MetadataSystem(Repository.createSelfRepository().createTypeLoader());
+        ReferenceGraph graph = new ReferenceGraph();
+        graph.visitType(ms.lookupType(TYPE).resolve());
+        MemberInfo a = method("a", "()V"), b = method("b", "()V"), c = method("c", "()I");
+        MemberInfo field = new MemberInfo(TYPE, "field", "I");
+
+        assertEquals(Arrays.asList(b, c), graph.getCallees(a));
+        assertEquals(Collections.singletonList(a), graph.getCallers(b));
+        assertEquals(Arrays.asList(a, c), graph.getCallers(c));
+        assertEquals(Collections.singletonList(b), graph.getReaders(field));
+        assertEquals(Arrays.asList(a, b), graph.getWriters(field));
+        assertEquals(Collections.singletonList(field), graph.getWrittenFields(a));
+        assertTrue(graph.getReadFields(a).isEmpty());
+        assertTrue(graph.getCallers(a).isEmpty());
+        assertTrue(graph.getCallers(method("unknown", "()V")).isEmpty());
+
+        // LambdaMetafactory call sites refer to the implementation method: lambda body or referenced method
+        MemberInfo d = method("d", "()I"), e = method("e", "()Ljava/lang/Runnable;");
+        MemberInfo f = method("f", "()Ljava/util/function/IntSupplier;"), lambda = method("lambda$e$0", "()V");
+        assertEquals(Collections.singletonList(lambda), graph.getCallees(e));
+        assertEquals(Collections.singletonList(d), graph.getCallees(lambda));
+        assertEquals(Collections.singletonList(d), graph.getCallees(f));
+        assertEquals(new HashSet<>(Arrays.asList(lambda, f)), new HashSet<>(graph.getCallers(d)));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.strobel.decompiler.ast.AstCode;
+import com.strobel.decompiler.ast.Expression;
+
+/**
+ * @author lan
+ *
+ */
+public class FactStoreTest {
+    static final String TYPE = FactStoreTest.class.getName().replace('.', '/') + "$Sample";
+
+    static class Sample {
+        static int loop(int n) {
+            int x = 0;
+            for (int i = 0; i < n; i++) {
+                x += i;
+            }
+            return x;
+        }
+
+        static String nulls(String s, int n) {
+            String res = null;
+            for (int i = 0; i < n; i++) {
+                if (s != null)
+                    res = s;
+                else if (i % 2 == 0)
+                    res = String.valueOf(i);
+            }
+            return res == null ? "" : res.trim();
+        }
+    }
+
+    static CFG analyze(String name) {
+        return ValuesFlowTest.analyze(ValuesFlowTest.createContext(), TYPE, name);
+    }
+
+    static Expression findReturned(CFG cfg) {
+        List<Expression> returns = new ArrayList<>();
+        Annotator.forExpressions(cfg.body, expr -> {
+            if (expr.getCode() == AstCode.Return)
+                returns.add(expr.getArguments().get(0));
+        });
+        assertEquals(1, returns.size());
+        return returns.get(0);
+    }
+
+    @Test
+    public void testSlots() {
+        // annotators are registered on Inf initialization
+        assertNotNull(Inf.SOURCE);
+        FactStore.Slot first = FactStore.getOrCreateSlot(new Expression(AstCode.Nop, null, 0));
+        FactStore store = first.store;
+        assertSame(first, FactStore.slot(first.expr));
+        assertSame(first, store.attach(first.expr));
+        assertNull(first.get(0));
+        first.put(0, "first");
+        // column is grown when expressions are attached after its allocation
+        List<FactStore.Slot> slots = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            FactStore.Slot slot = store.attach(new Expression(AstCode.Nop, null, i));
+            assertEquals(i + 1, slot.id);
+            slot.put(0, i);
+            slots.add(slot);
+        }
+        assertEquals(101, store.size());
+        assertEquals("first", first.get(0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, slots.get(i).get(0));
+            assertNull(slots.get(i).get(1));
+        }
+        assertNull(first.get(Annotators.count()));
+        store.release();
+        assertNull(first.get(0));
+        assertNull(slots.get(99).get(0));
+    }
+
+    @Test
+    public void testSyntheticNodes() {
+        CFG cfg = analyze("loop");
+        Expression returned = findReturned(cfg);
+        Expression phi = Inf.SOURCE.get(returned);
+        assertNotNull(phi);
+        assertEquals(SourceAnnotator.PHI_TYPE, phi.getCode());
+        // phi nodes are numbered in the method store instead of the store of their own
+        assertSame(cfg.facts, FactStore.slot(returned).store);
+        assertSame(cfg.facts, FactStore.slot(phi).store);
+        for (Expression arg : phi.getArguments()) {
+            assertSame(cfg.facts, FactStore.slot(arg).store);
+        }
+    }
+
+    @Test
+    public void testBackLinksFromPhi() {
+        CFG cfg = analyze("loop");
+        Expression returned = findReturned(cfg);
+        Expression phi = Inf.SOURCE.get(returned);
+        // the first query for the synthetic node builds the links for the whole method
+        assertTrue(Inf.BACKLINK.findUsages(phi).isEmpty());
+        assertFalse(Inf.BACKLINK.markComputed(cfg.facts));
+        assertEquals(2, phi.getArguments().size());
+        for (Expression arg : phi.getArguments()) {
+            assertTrue(arg.toString(), Inf.BACKLINK.findUsages(arg).contains(returned));
+        }
+    }
+
+    private static void collect(Expression expr, Annotator<?> annotator, Map<Object, Object> facts) {
+        Object fact = annotator.get(expr);
+        if (fact != null) {
+            Object canonical = facts.putIfAbsent(fact, fact);
+            // sameFact compares the facts by reference
+            assertTrue(fact + " is not interned", canonical == null || canonical == fact);
+        }
+        for (Expression arg : expr.getArguments()) {
+            collect(arg, annotator, facts);
+        }
+    }
+
+    @Test
+    public void testFactsInterned() {
+        CFG cfg = analyze("nulls");
+        for (Annotator<?> annotator : new Annotator<?>[] { Inf.CONST, Inf.ETYPE, Inf.NULL }) {
+            Map<Object, Object> facts = new HashMap<>();
+            Annotator.forExpressions(cfg.body, expr -> collect(expr, annotator, facts));
+            assertFalse(facts.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * @author lan
+ *
+ */
+public class PersistentMapTest {
+    @Test
+    public void testRandom() {
+        Random r = new Random(1);
+        Map<Integer, String> expected = new HashMap<>();
+        PersistentMap<Integer, String> map = PersistentMap.empty();
+        for (int i = 0; i < 10000; i++) {
+            // small key range produces updates and removals, multiplier makes keys share the lower bits
+            Integer key = r.nextInt(500) * 1024;
+            if (r.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                String value = String.valueOf(r.nextInt(10));
+                expected.put(key, value);
+                map = map.plus(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        for (Entry<Integer, String> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+    }
+
+    @Test
+    public void testDifferentEntries() {
+        PersistentMap<Integer, String> base = PersistentMap.empty();
+        for (int i = 0; i < 1000; i++) {
+            base = base.plus(i, "v" + i);
+        }
+        PersistentMap<Integer, String> changed = base.plus(10, "x").plus(2000, "y").minus(20);
+        assertSame(base, base.plus(30, base.get(30)));
+        assertSame(base, base.minus(5000));
+        assertTrue(base.differentEntries(base).isEmpty());
+        Set<Integer> keys = new HashSet<>();
+        List<Entry<Integer, String>> diff = changed.differentEntries(base);
+        diff.forEach(e -> keys.add(e.getKey()));
+        assertTrue(keys.contains(10));
+        assertTrue(keys.contains(2000));
+        assertFalse(keys.contains(20));
+        // shared nodes are skipped
+        assertTrue(diff.size() < 100);
+        keys.clear();
+        base.differentEntries(changed).forEach(e -> keys.add(e.getKey()));
+        assertTrue(keys.contains(10));
+        assertTrue(keys.contains(20));
+    }
+
+    @Test
+    public void testCollisions() {
+        // "Aa" and "BB" have the same hash code
+        PersistentMap<String, String> map = PersistentMap.<String, String>empty().plus("Aa", "1").plus("BB", "2").plus(
+            "C", "3");
+        assertEquals(3, map.size());
+        assertEquals("1", map.get("Aa"));
+        assertEquals("2", map.get("BB"));
+        map = map.minus("Aa");
+        assertEquals(2, map.size());
+        assertNull(map.get("Aa"));
+        assertEquals("2", map.get("BB"));
+        assertEquals("3", map.get("C"));
+    }
+
+    @Test
+    public void testIdentity() {
+        String k1 = new String("a"), k2 = new String("a");
+        PersistentMap<String, String> map = PersistentMap.<String, String>emptyIdentity().plus(k1, "1").plus(k2, "2");
+        assertEquals(2, map.size());
+        assertEquals("1", map.get(k1));
+        assertEquals("2", map.get(k2));
+        assertNull(map.get("a"));
+        PersistentMap<String, String> eqMap = PersistentMap.<String, String>empty().plus(k1, "1").plus(k2, "2");
+        assertEquals(1, eqMap.size());
+        assertEquals("2", eqMap.get("a"));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.ast.AstBuilder;
+import com.strobel.decompiler.ast.AstOptimizationStep;
+import com.strobel.decompiler.ast.AstOptimizer;
+import com.strobel.decompiler.ast.Block;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.db.FieldStats;
+import one.util.huntbugs.db.MethodStats;
+import one.util.huntbugs.db.MethodSummaries;
+import one.util.huntbugs.repo.Repository;
+
+/**
+ * @author lan
+ *
+ */
+public class ValuesFlowTest {
+    static final String TESTDATA = "one/util/huntbugs/testdata/TestValuesFlow";
+
+    static Context createContext() {
+        AnalysisOptions options = new AnalysisOptions();
+        options.addBootClassPath = false;
+        return new Context(null, options);
+    }
+
+    static CFG analyze(Context ctx, String type, String name) {
+        return analyze(ctx, type, name, EnumSet.allOf(Fact.class));
+    }
+
+    static CFG analyze(Context ctx, String type, String name, Set<Fact> facts) {
+        MetadataSystem ms = new MetadataSystem(Repository.createSelfRepository().createTypeLoader());
+        TypeDefinition td = ms.lookupType(type).resolve();
+        MethodDefinition md = td.getDeclaredMethods().stream().filter(m -> m.getName().equals(name)).findFirst()
+                .get();
+        DecompilerContext context = new DecompilerContext();
+        context.setCurrentMethod(md);
+        context.setCurrentType(td);
+        Block methodAst = new Block();
+        methodAst.getBody().addAll(AstBuilder.build(md.getBody(), true, context));
+        AstOptimizer.optimize(context, methodAst, AstOptimizationStep.None);
+        CFG cfg = CFG.build(md, methodAst);
+        ClassFields cf = new ClassFields(td, new FieldStats(), new MethodStats(), new MethodSummaries());
+        assertNotNull(ValuesFlow.annotate(ctx, md, cf, cfg, facts, false));
+        return cfg;
+    }
+
+    @Test
+    public void testWidening() {
+        Context ctx = createContext();
+        // enough for sources which are not widened
+        ctx.getOptions().maxDataflowIterations = 20;
+        CFG cfg = analyze(ctx, TESTDATA, "testWidening", EnumSet.noneOf(Fact.class));
+        // the variable chain is longer than the iteration limit, so it's stabilized by widening only
+        int maxIter = 4;
+        assertTrue(Inf.CONST.build(cfg, false, maxIter));
+        assertTrue(Inf.ETYPE.build(cfg, maxIter));
+        assertTrue(Inf.NULL.build(cfg, false, maxIter));
+    }
+}
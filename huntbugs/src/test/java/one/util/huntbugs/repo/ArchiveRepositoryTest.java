@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * @author lan
+ */
+public class ArchiveRepositoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] zip(boolean stored, Object... entries) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                byte[] data = (byte[]) entries[i + 1];
+                ZipEntry entry = new ZipEntry((String) entries[i]);
+                if (stored) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zos.putNextEntry(entry);
+                zos.write(data);
+                zos.closeEntry();
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] bytes(String s) {
+        byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) s.charAt(0));
+        return data;
+    }
+
+    @Test
+    public void testFatJar() throws IOException {
+        byte[] storedLib = zip(true, "l/L.class", bytes("L"));
+        byte[] deflatedLib = zip(false, "m/M.class", bytes("M"), "m/N.class", bytes("N"));
+        Path path = folder.getRoot().toPath().resolve("app.jar");
+        Files.write(path, zip(true, "BOOT-INF/", new byte[0], "BOOT-INF/classes/", new byte[0],
+            "BOOT-INF/classes/a/", new byte[0], "BOOT-INF/classes/a/A.class", bytes("A"),
+            "BOOT-INF/classes/a/A$1.class", bytes("1"), "org/springframework/Launcher.class", bytes("S"),
+            "BOOT-INF/lib/l.jar", storedLib));
+        // deflated outer entries with deflated nested archive
+        Path war = folder.getRoot().toPath().resolve("app.war");
+        Files.write(war, zip(false, "WEB-INF/classes/b/B.class", bytes("B"), "WEB-INF/lib/m.jar", deflatedLib));
+
+        Repository repo = ArchiveRepository.open(path);
+        List<String> classes = new ArrayList<>();
+        repo.visit("", new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return true;
+            }
+
+            @Override
+            public void visitClass(String className) {
+                classes.add(className);
+            }
+        });
+        assertEquals(Arrays.asList("a/A"), classes);
+        ITypeLoader loader = repo.createTypeLoader();
+        Buffer buffer = new Buffer();
+        assertTrue(loader.tryLoadType("a/A$1", buffer));
+        assertEquals(1000, buffer.size());
+        assertEquals('1', buffer.readByte());
+        assertTrue(loader.tryLoadType("l/L", buffer));
+        assertEquals('L', buffer.readByte());
+        assertFalse(loader.tryLoadType("org/springframework/Launcher", buffer));
+
+        Repository warRepo = ArchiveRepository.open(war);
+        loader = warRepo.createTypeLoader();
+        assertTrue(loader.tryLoadType("b/B", buffer));
+        assertEquals('B', buffer.readByte());
+        assertTrue(loader.tryLoadType("m/N", buffer));
+        assertEquals(1000, buffer.size());
+        assertEquals('N', buffer.readByte());
+        assertEquals(new HashSet<>(Arrays.asList("b", "m")), warRepo.getPackages());
+        warRepo.close();
+
+        Path jar = folder.getRoot().toPath().resolve("plain.jar");
+        Files.write(jar, deflatedLib);
+        assertTrue(ArchiveRepository.open(jar) instanceof JarRepository);
+    }
+
+    @Test
+    public void testPrefixed() throws IOException {
+        // executable jar: the launch script precedes the archive, the offsets
+        // are relative to the archive start
+        byte[] script = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] jar = zip(true, "BOOT-INF/classes/a/A.class", bytes("A"), "BOOT-INF/lib/l.jar", zip(true,
+            "l/L.class", bytes("L")));
+        byte[] data = Arrays.copyOf(script, script.length + jar.length);
+        System.arraycopy(jar, 0, data, script.length, jar.length);
+        Path path = folder.getRoot().toPath().resolve("app");
+        Files.write(path, data);
+
+        Repository repo = ArchiveRepository.open(path);
+        ITypeLoader loader = repo.createTypeLoader();
+        Buffer buffer = new Buffer();
+        assertTrue(loader.tryLoadType("a/A", buffer));
+        assertEquals('A', buffer.readByte());
+        assertTrue(loader.tryLoadType("l/L", buffer));
+        assertEquals('L', buffer.readByte());
+
+        repo.close();
+        assertFalse(loader.tryLoadType("a/A", buffer));
+    }
+}
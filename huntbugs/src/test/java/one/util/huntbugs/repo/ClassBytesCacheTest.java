@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * @author lan
+ */
+public class ClassBytesCacheTest {
+    static class CountingLoader implements ITypeLoader {
+        final AtomicInteger loads = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        volatile boolean concurrent;
+
+        @Override
+        public boolean tryLoadType(String name, Buffer buffer) {
+            if (active.incrementAndGet() > 1)
+                concurrent = true;
+            try {
+                if (name.equals("missing"))
+                    return false;
+                loads.incrementAndGet();
+                byte[] data = new byte[name.length() * 10];
+                data[0] = (byte) name.charAt(0);
+                buffer.reset(data.length);
+                buffer.putByteArray(data, 0, data.length);
+                buffer.position(0);
+                return true;
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testCache() {
+        CountingLoader loader = new CountingLoader();
+        ClassBytesCache cache = new ClassBytesCache(loader, 100);
+        Buffer buffer = new Buffer();
+        assertTrue(cache.tryLoadType("a", buffer));
+        assertTrue(cache.tryLoadType("bb", buffer));
+        assertTrue(cache.tryLoadType("a", buffer));
+        assertEquals(2, loader.loads.get());
+        assertEquals(10, buffer.size());
+        assertEquals('a', buffer.readByte());
+        assertEquals(3, cache.getLookups());
+        assertEquals(1, cache.getHits());
+        assertEquals(10, cache.getSavedBytes());
+        assertEquals(30, cache.getCachedBytes());
+        assertFalse(cache.tryLoadType("missing", buffer));
+
+        // "bb" is the least recently used
+        assertTrue(cache.tryLoadType("ccccccc", buffer));
+        assertEquals(100, cache.getCachedBytes());
+        assertTrue(cache.tryLoadType("dd", buffer));
+        assertEquals(100, cache.getCachedBytes());
+        assertTrue(cache.tryLoadType("a", buffer));
+        assertEquals(4, loader.loads.get());
+        assertTrue(cache.tryLoadType("bb", buffer));
+        assertEquals(5, loader.loads.get());
+
+        cache.clear();
+        assertEquals(0, cache.getCachedBytes());
+        assertTrue(cache.tryLoadType("a", buffer));
+        assertEquals(6, loader.loads.get());
+
+        // caches are independent
+        ClassBytesCache other = new ClassBytesCache(loader, 100);
+        assertTrue(other.tryLoadType("a", buffer));
+        assertEquals(7, loader.loads.get());
+        assertEquals(0, other.getHits());
+    }
+
+    @Test
+    public void testDisabled() {
+        CountingLoader loader = new CountingLoader();
+        ClassBytesCache cache = new ClassBytesCache(loader, 0);
+        IntStream.range(0, 10000).parallel().forEach(i -> assertTrue(cache.tryLoadType("c" + (i % 10), new Buffer())));
+        assertEquals(10000, loader.loads.get());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getCachedBytes());
+        // the loader is never called concurrently even if nothing is cached
+        assertFalse(loader.concurrent);
+    }
+
+    @Test
+    public void testHitWhileLoading() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingLoader loader = new CountingLoader() {
+            @Override
+            public boolean tryLoadType(String name, Buffer buffer) {
+                if (name.equals("slow")) {
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+                return super.tryLoadType(name, buffer);
+            }
+        };
+        ClassBytesCache cache = new ClassBytesCache(loader, 100);
+        assertTrue(cache.tryLoadType("a", new Buffer()));
+        Thread thread = new Thread(() -> cache.tryLoadType("slow", new Buffer()));
+        thread.start();
+        loading.await();
+        // cached class is served while the loader is busy
+        assertTrue(cache.tryLoadType("a", new Buffer()));
+        assertEquals(1, cache.getHits());
+        release.countDown();
+        thread.join();
+        assertEquals(2, loader.loads.get());
+        assertEquals(50, cache.getCachedBytes());
+    }
+}
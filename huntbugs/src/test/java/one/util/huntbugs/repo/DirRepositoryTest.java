@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author lan
+ */
+public class DirRepositoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testVisit() throws IOException {
+        Path root = folder.getRoot().toPath();
+        for (String name : Arrays.asList("A.class", "a/B.class", "a/B$1.class", "a/b/C.class", "a/b/c.txt",
+            "d/e/D.class", "f/g.txt")) {
+            Path file = root.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+        }
+        DirRepository repo = new DirRepository(root);
+        assertEquals(new HashSet<>(Arrays.asList("", "a", "a/b", "d/e")), repo.getPackages());
+
+        List<String> visited = new ArrayList<>();
+        repo.visit("", new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                visited.add("package " + packageName);
+                return !packageName.equals("d");
+            }
+
+            @Override
+            public void visitClass(String className) {
+                visited.add(className);
+            }
+        });
+        // subpackages are checked before the classes, "d" is not listed
+        assertEquals(Arrays.asList("package ", "package a", "package d", "package f", "A", "package a/b", "a/B",
+            "a/b/C"), visited);
+    }
+
+    @Test
+    public void testUnreadable() throws IOException {
+        Path file = folder.newFile("A.class").toPath();
+        // the listing has failed, so the packages are unknown
+        assertNull(new DirRepository(file).getPackages());
+    }
+}
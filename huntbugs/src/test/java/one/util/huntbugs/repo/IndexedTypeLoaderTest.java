@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * @author lan
+ */
+public class IndexedTypeLoaderTest {
+    static class TestRepository implements Repository {
+        final String name;
+        final Set<String> packages;
+        final List<String> requests;
+
+        TestRepository(String name, Set<String> packages, List<String> requests) {
+            this.name = name;
+            this.packages = packages;
+            this.requests = requests;
+        }
+
+        @Override
+        public ITypeLoader createTypeLoader() {
+            return (internalName, buffer) -> {
+                requests.add(name + ":" + internalName);
+                if (packages != null && !packages.contains(IndexedTypeLoader.getPackage(internalName)))
+                    return false;
+                buffer.reset(1);
+                buffer.writeByte(name.charAt(0));
+                buffer.position(0);
+                return true;
+            };
+        }
+
+        @Override
+        public Set<String> getPackages() {
+            return packages;
+        }
+
+        @Override
+        public void visit(String rootPackage, RepositoryVisitor visitor) {
+        }
+    }
+
+    @Test
+    public void testIndex() {
+        List<String> requests = new ArrayList<>();
+        Repository a = new TestRepository("a", Collections.singleton("x/y"), requests);
+        Repository b = new TestRepository("b", new HashSet<>(Arrays.asList("x/y", "z")), requests);
+        Repository aux = new AuxRepository(Arrays.asList(a, b));
+        assertEquals(new HashSet<>(Arrays.asList("x/y", "z")), aux.getPackages());
+        ITypeLoader loader = new CompositeRepository(Arrays.asList(aux, Repository.createNullRepository()))
+                .createTypeLoader();
+        Buffer buffer = new Buffer();
+        assertTrue(loader.tryLoadType("x/y/C", buffer));
+        assertEquals('a', buffer.readByte());
+        assertTrue(loader.tryLoadType("z/C", buffer));
+        assertEquals('b', buffer.readByte());
+        assertFalse(loader.tryLoadType("w/C", buffer));
+        assertFalse(loader.tryLoadType("w/C", buffer));
+        assertEquals(Arrays.asList("a:x/y/C", "b:z/C"), requests);
+
+        // unindexed repository is asked in classpath order
+        requests.clear();
+        Repository c = new TestRepository("c", null, requests);
+        loader = new CompositeRepository(Arrays.asList(c, b)).createTypeLoader();
+        assertTrue(loader.tryLoadType("z/C", buffer));
+        assertEquals('c', buffer.readByte());
+        assertTrue(loader.tryLoadType("w/C", buffer));
+        assertEquals(Arrays.asList("c:z/C", "c:w/C"), requests);
+    }
+}
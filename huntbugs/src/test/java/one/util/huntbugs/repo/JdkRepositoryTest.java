@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * @author lan
+ */
+public class JdkRepositoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRuntime() throws IOException {
+        Repository repo = JdkRepository.forHome(null);
+        try {
+            checkRuntime(repo);
+        } finally {
+            repo.close();
+        }
+        // the repository is not shared: a new one is opened after closing
+        Repository other = JdkRepository.forHome(null);
+        try {
+            assertNotSame(repo, other);
+            checkRuntime(other);
+        } finally {
+            other.close();
+        }
+    }
+
+    private static void checkRuntime(Repository repo) {
+        assertTrue(repo.getPackages().contains("java/lang"));
+        assertFalse(repo.getPackages().contains("one/util/huntbugs/repo"));
+        ITypeLoader loader = repo.createTypeLoader();
+        Buffer buffer = new Buffer();
+        assertTrue(loader.tryLoadType("java/util/Map$Entry", buffer));
+        assertEquals(0xCAFEBABE, buffer.readInt());
+        assertFalse(loader.tryLoadType("java/lang/NoSuchClass", buffer));
+        repo.visit("", new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public void visitClass(String className) {
+                throw new AssertionError();
+            }
+        });
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoJdk() throws IOException {
+        // neither runtime image nor jmods nor JDK jars
+        folder.newFolder("lib");
+        JdkRepository.forHome(folder.getRoot().toString());
+    }
+}
@@ -42,4 +42,23 @@ public class TestValuesFlow {
             mapTemp.put(key, e.getValue());
         }
     }
+
+    @AssertNoWarning("*")
+    int testWidening(Object obj, int n) {
+        // every iteration moves the parameter one variable further, so the
+        // loop head state keeps changing longer than the iteration limit
+        Object a = "", b = "", c = "", d = "", e = "", f = "", g = "", h = "", k = "";
+        for (int i = 0; i < n; i++) {
+            k = h;
+            h = g;
+            g = f;
+            f = e;
+            e = d;
+            d = c;
+            c = b;
+            b = a;
+            a = obj;
+        }
+        return k.hashCode();
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author lan
+ */
+public class RecordIndexTest {
+    @Test
+    public void testHeap() {
+        check(false);
+    }
+
+    @Test
+    public void testOffHeap() {
+        check(true);
+    }
+
+    private static void check(boolean offHeap) {
+        RecordIndex index = new RecordIndex(offHeap);
+        for (int i = 0; i < 10000; i++) {
+            index.put(i, i % 7, 0, i * 2);
+        }
+        index.put(14, 0, 0, 100);
+        assertEquals(10000, index.size());
+        assertEquals(100, index.get(14, 0, 0, -1));
+        assertEquals(19998, index.get(9999, 9999 % 7, 0, -1));
+        assertEquals(-1, index.get(15, 0, 0, -1));
+        assertEquals(-1, index.get(-1, 0, 0, -1));
+        index.close();
+
+        Records records = new Records(16, offHeap);
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i, records.add());
+            records.putLong(i, 0, i * 3L);
+        }
+        // records on both sides of every chunk boundary
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i * 3L, records.getLong(i, 0));
+        }
+        assertEquals(0, records.getInt(49999, 8));
+        assertEquals(offHeap, records.isOffHeap());
+        records.close();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.TypeReference;
+
+/**
+ * @author lan
+ */
+public class SubtypeCacheTest {
+    static class CachingMetadataSystem extends MetadataSystem implements MetadataCaches {
+        final SubtypeCache subtypeCache = new SubtypeCache();
+
+        CachingMetadataSystem() {
+            super(new ClasspathTypeLoader());
+        }
+
+        @Override
+        public SubtypeCache getSubtypeCache() {
+            return subtypeCache;
+        }
+    }
+
+    @Test
+    public void testIsInstance() {
+        MetadataSystem cached = new CachingMetadataSystem();
+        MetadataSystem plain = new MetadataSystem(new ClasspathTypeLoader());
+        String[] types = { "java/util/ArrayList", "java/util/List", "java/util/Collection", "java/lang/Iterable",
+                "java/util/RandomAccess", "java/util/AbstractList", "java/util/Map", "java/lang/Integer",
+                "java/lang/Number", "java/lang/Comparable", "java/io/Serializable", "java/lang/String",
+                "java/lang/CharSequence", "java/lang/Object", "java/util/LinkedHashMap", "java/util/HashMap" };
+        for (String type : types) {
+            for (String wanted : types) {
+                TypeReference plainType = plain.lookupType(type);
+                TypeReference cachedType = cached.lookupType(type);
+                assertEquals(type + " -> " + wanted, Types.isInstance(plainType, wanted), Types.isInstance(
+                    cachedType, wanted));
+            }
+        }
+        assertTrue(Types.isInstance(cached.lookupType("java/util/ArrayList"), "java/lang/Iterable"));
+        assertFalse(Types.isInstance(cached.lookupType("java/util/ArrayList"), "java/util/Map"));
+        assertFalse(Types.isInstance(cached.lookupType("java/util/ArrayList"), "com/example/Unknown"));
+    }
+}
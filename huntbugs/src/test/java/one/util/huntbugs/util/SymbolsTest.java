@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * @author lan
+ */
+public class SymbolsTest {
+    @Test
+    public void testSymbols() {
+        Symbols symbols = new Symbols();
+        assertEquals(-1, symbols.find("java/lang/String"));
+        int id = symbols.id("java/lang/String");
+        assertEquals(id, symbols.id(new String("java/lang/String")));
+        assertEquals(id, symbols.find("java/lang/String"));
+        assertEquals("java/lang/String", symbols.name(id));
+        assertNotEquals(id, symbols.id("length"));
+        String name = new String("length");
+        assertNotSame(name, symbols.intern(name));
+        assertSame(symbols.intern("length"), symbols.intern(name));
+
+        // tables are independent
+        Symbols other = new Symbols();
+        assertEquals(-1, other.find("java/lang/String"));
+        assertEquals(0, other.id("length"));
+    }
+
+    @Test
+    public void testConcurrentGrowth() {
+        Symbols symbols = new Symbols();
+        List<Integer> ids = IntStream.range(0, 10000).parallel().mapToObj(i -> symbols.id("s" + (i % 5000))).collect(
+            Collectors.toList());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(ids.get(i % 5000), ids.get(i));
+            assertEquals("s" + (i % 5000), symbols.name(ids.get(i)));
+        }
+        assertEquals(5000, IntStream.range(0, 5000).map(i -> symbols.find("s" + i)).distinct().filter(i -> i >= 0
+            && i < 5000).count());
+    }
+}